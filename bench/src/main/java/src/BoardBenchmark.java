@@ -0,0 +1,140 @@
+/**
+ * @File: BoardBenchmark.java
+ * @Description: JMH benchmarks of the model operations on realistic positions
+ */
+
+package src;
+
+// Import java libraries
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * @brief Throughput of moves, move checks, validity checks and spawns on both board engines
+ * @details Every invocation works on the next of a pool of positions of the selected phase, so the
+ * branch predictor cannot learn a single board. Moves change the board, so the move benchmark reloads
+ * its position first; the load benchmark measures that reload alone and is the baseline to subtract.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+	// Number of positions per pool; a power of two
+	private static final int POOL = 64;
+
+	@Param({ "BoardT", "BitBoardT" })
+	public String engine;
+
+	@Param({ "EARLY", "MID", "LATE" })
+	public BoardFixtures.Phase phase;
+
+	/**
+	 * @brief The direction of the move benchmarks, kept apart so only they run once per direction
+	 */
+	@State(Scope.Thread)
+	public static class Direction {
+		@Param({ "up", "down", "left", "right" })
+		public MoveT move;
+	}
+
+	private int[][][] positions;
+	private GameBoard[] boards;
+	private GameBoard scratch;
+	private int next;
+
+    /**
+     * @brief builds the positions and one loaded board per position
+     */
+	@Setup
+	public void setup() {
+		positions = BoardFixtures.positions(phase, POOL, 2048L);
+		boards = new GameBoard[POOL];
+		for (int i = 0; i < POOL; i++) {
+			boards[i] = newBoard();
+			BoardFixtures.load(boards[i], positions[i]);
+		}
+		scratch = newBoard();
+	}
+
+    /**
+     * @brief reloads the next position into the scratch board (baseline of move)
+     * @return the loaded board
+     */
+	@Benchmark
+	public GameBoard load() {
+		BoardFixtures.load(scratch, positions[advance()]);
+		return scratch;
+	}
+
+    /**
+     * @brief reloads the next position and makes the move on it
+     * @param direction - the direction of the move
+     * @return the moved board
+     */
+	@Benchmark
+	public GameBoard move(Direction direction) {
+		BoardFixtures.load(scratch, positions[advance()]);
+		scratch.move(direction.move);
+		return scratch;
+	}
+
+    /**
+     * @brief checks whether the move changes the next position
+     * @param direction - the direction of the move
+     * @return whether the board changes
+     */
+	@Benchmark
+	public boolean isBoardChangedOnMove(Direction direction) {
+		return boards[advance()].isBoardChangedOnMove(direction.move);
+	}
+
+    /**
+     * @brief checks whether any move is possible on the next position
+     * @return whether a move is possible
+     */
+	@Benchmark
+	public boolean isAnyValidMove() {
+		return boards[advance()].isAnyValidMove();
+	}
+
+    /**
+     * @brief draws the cell and the value of a new tile on the next position
+     * @return the cell index combined with the tile value
+     */
+	@Benchmark
+	public int spawn() {
+		GameBoard board = boards[advance()];
+		return board.generateRandomFreeCell() << 16 | board.generateRandomTile();
+	}
+
+    /**
+     * @brief creates a board of the selected engine
+     */
+	private GameBoard newBoard() {
+		TileSpawner spawner = TileSpawner.classic(42L);
+		return engine.equals("BitBoardT") ? new BitBoardT(spawner) : new BoardT(spawner);
+	}
+
+    /**
+     * @brief moves on to the next position of the pool
+     */
+	private int advance() {
+		next = (next + 1) & (POOL - 1);
+		return next;
+	}
+}
@@ -0,0 +1,130 @@
+/**
+ * @File: BoardFixtures.java
+ * @Description: realistic early, mid and late game positions for the benchmarks
+ */
+
+package src;
+
+// Import java libraries
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @brief A generator of reproducible 4x4 game positions
+ * @details Positions come from games played with a corner strategy (the first move that changes the
+ * board, in the order left, down, right, up) and classic tile spawns, so they have the tile patterns
+ * of real games. Every position has at least one move changing the board.
+ */
+public final class BoardFixtures {
+
+	/**
+	 * @brief The stage of a game a position is taken from
+	 */
+	public enum Phase {
+		// first position with a free cell holding a 64 tile, usually half empty
+		EARLY,
+		// first position with a free cell holding a 256 tile
+		MID,
+		// positions with one or two empty cells, close to the end of the game
+		LATE
+	}
+
+	private static final MoveT[] PREFERENCE = { MoveT.left, MoveT.down, MoveT.right, MoveT.up };
+	private static final int MAX_GAMES = 100000;
+
+    /**
+     * @brief private constructor, the class only holds static methods
+     */
+	private BoardFixtures() {
+	}
+
+    /**
+     * @brief plays games until enough positions of a phase are collected
+     * @param phase - the stage of the game
+     * @param count - the number of positions
+     * @param seed - the root seed of the games
+     * @return the positions as grids of tile values
+     * @throws IllegalStateException - if the games do not produce enough positions
+     */
+	public static int[][][] positions(Phase phase, int count, long seed) {
+		List<int[][]> positions = new ArrayList<>();
+		BoardT board = new BoardT(TileSpawner.classic(seed));
+		for (long game = 0; game < MAX_GAMES && positions.size() < count; game++) {
+			board.reset();
+			board.getSpawner().reseed(TileSpawner.seedFor(seed, game));
+			spawn(board);
+			spawn(board);
+			List<int[][]> late = new ArrayList<>();
+			boolean taken = false;
+			while (!taken) {
+				MoveT move = chooseMove(board);
+				if (move == null)
+					break;
+				boolean free = !board.isBoardFull(); // spawning needs a free cell
+				if (free && (phase == Phase.EARLY && board.getMaxTile() >= 64
+						|| phase == Phase.MID && board.getMaxTile() >= 256)) {
+					positions.add(copy(board.getBoard()));
+					taken = true;
+				}
+				else if (free && phase == Phase.LATE && board.getEmptyCellCount() <= 2) {
+					late.add(copy(board.getBoard()));
+				}
+				board.move(move);
+				spawn(board);
+			}
+			// the last crowded positions of a game are the closest to its end
+			for (int i = Math.max(0, late.size() - 4); i < late.size() && positions.size() < count; i++) {
+				positions.add(late.get(i));
+			}
+		}
+		if (positions.size() < count)
+			throw new IllegalStateException("Not enough " + phase + " positions.");
+		return positions.toArray(new int[count][][]);
+	}
+
+    /**
+     * @brief loads a position into a board and starts a game on it
+     * @param board - the board to overwrite
+     * @param position - a grid of tile values of the same size as the board
+     */
+	public static void load(GameBoard board, int[][] position) {
+		board.reset();
+		for (int i = 0; i < position.length; i++) {
+			for (int j = 0; j < position[i].length; j++) {
+				if (position[i][j] != 0)
+					board.setCell(i, j, position[i][j]);
+			}
+		}
+	}
+
+    /**
+     * @brief picks the move of the corner strategy
+     * @return the first move changing the board, or null if there is none
+     */
+	private static MoveT chooseMove(BoardT board) {
+		for (MoveT move : PREFERENCE) {
+			if (board.isBoardChangedOnMove(move))
+				return move;
+		}
+		return null;
+	}
+
+    /**
+     * @brief spawns a tile on a free cell
+     */
+	private static void spawn(BoardT board) {
+		int cell = board.generateRandomFreeCell();
+		board.setCell(cell / board.getSize(), cell % board.getSize(), board.generateRandomTile());
+	}
+
+    /**
+     * @brief copies a grid
+     */
+	private static int[][] copy(int[][] grid) {
+		int[][] copy = new int[grid.length][];
+		for (int i = 0; i < grid.length; i++) {
+			copy[i] = grid[i].clone();
+		}
+		return copy;
+	}
+}
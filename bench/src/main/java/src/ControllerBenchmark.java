@@ -0,0 +1,89 @@
+/**
+ * @File: ControllerBenchmark.java
+ * @Description: JMH benchmark of the full controller move cycle
+ */
+
+package src;
+
+// Import java libraries
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * @brief Throughput of Controller.onMoveOccured: move, spawn, status update and grid refresh
+ * @details The controller drives a HeadlessView, so the cycle runs without Swing. Every invocation
+ * reloads the next position of a pool and plays the next of the four moves on it; the load benchmark
+ * measures the reload alone and is the baseline to subtract. The undo history is limited to 64
+ * moves, so it stops growing after warmup. An animated view has the model record the travel of
+ * tiles, as for the Swing client; a view that is not, as for a server session, spares it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ControllerBenchmark {
+
+	// Number of positions per pool; a power of two
+	private static final int POOL = 64;
+	private static final MoveT[] MOVES = MoveT.values();
+
+	@Param({ "BoardT", "BitBoardT" })
+	public String engine;
+
+	@Param({ "EARLY", "MID", "LATE" })
+	public BoardFixtures.Phase phase;
+
+	@Param({ "true", "false" })
+	public boolean animated;
+
+	private int[][][] positions;
+	private GameBoard model;
+	private Controller controller;
+	private int next;
+
+    /**
+     * @brief builds the positions and the controller
+     */
+	@Setup
+	public void setup() {
+		positions = BoardFixtures.positions(phase, POOL, 2048L);
+		TileSpawner spawner = TileSpawner.classic(42L);
+		model = engine.equals("BitBoardT") ? new BitBoardT(spawner) : new BoardT(spawner);
+		controller = new Controller(model, new HeadlessView(4, animated));
+		controller.setUndoDepth(64);
+	}
+
+    /**
+     * @brief reloads the next position into the model (baseline of onMoveOccured)
+     * @return the model
+     */
+	@Benchmark
+	public GameBoard load() {
+		BoardFixtures.load(model, positions[++next & (POOL - 1)]);
+		return model;
+	}
+
+    /**
+     * @brief reloads the next position and plays the next move through the controller
+     * @return the model
+     */
+	@Benchmark
+	public GameBoard onMoveOccured() {
+		BoardFixtures.load(model, positions[++next & (POOL - 1)]);
+		controller.onMoveOccured(MOVES[next & 3]);
+		return model;
+	}
+}
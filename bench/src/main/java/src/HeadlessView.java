@@ -0,0 +1,93 @@
+/**
+ * @File: HeadlessView.java
+ * @Description: a view module that opens no window, for driving the controller in benchmarks
+ */
+
+package src;
+
+/**
+ * @brief A GameView stub that keeps what it is asked to display instead of drawing it
+ * @details Never displays anything, so the controller skips the end of game dialogs. Whether it
+ * animates moves is chosen, so the controller can be measured with and without the travel of tiles.
+ */
+public class HeadlessView implements GameView {
+
+	// State Variables
+	private final int boardSize;
+	private final boolean animated;
+	private int[][] lastBoard;
+	private int lastScore;
+
+    /**
+     * @brief constructor
+     * @param boardSize - the board size reported as selected in the menu
+     * @param animated - true to report moves as animated, like the Swing client
+     */
+	public HeadlessView(int boardSize, boolean animated) {
+		this.boardSize = boardSize;
+		this.animated = animated;
+	}
+
+	@Override
+	public void switchToMenu() {
+	}
+
+	@Override
+	public void switchToGame() {
+	}
+
+	@Override
+	public boolean isDisplaying() {
+		return false;
+	}
+
+	@Override
+	public boolean animatesMoves() {
+		return animated;
+	}
+
+	@Override
+	public int getSelectedBoardSize() {
+		return boardSize;
+	}
+
+	@Override
+	public void updateGameUI(int size) {
+	}
+
+	@Override
+	public void updateGrid(int[][] board, int score) {
+		lastBoard = board;
+		lastScore = score;
+	}
+
+	@Override
+	public void updateGrid(int[][] board, int score, MoveDescription move) {
+		lastBoard = board;
+		lastScore = score;
+	}
+
+	@Override
+	public void displayYouWonMessage() {
+	}
+
+	@Override
+	public void displayYouLostMessage() {
+	}
+
+    /**
+     * @brief gets the last board handed to updateGrid
+     * @return the board, or null if none was displayed
+     */
+	public int[][] getLastBoard() {
+		return lastBoard;
+	}
+
+    /**
+     * @brief gets the last score handed to updateGrid
+     * @return the score
+     */
+	public int getLastScore() {
+		return lastScore;
+	}
+}
@@ -0,0 +1,627 @@
+/**
+ * @File: BitBoardT.java
+ * @Description: a bitboard model module storing the whole 4x4 game board in a single 64-bit long
+**/
+
+package src;
+
+// Import java libraries
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * @brief An ADT representing the board of the game 2048 packed into a single long
+ * @details Each cell is stored as a 4-bit exponent (0 -> empty, e -> tile 2^e), row x occupying
+ * bits 16x..16x+15 and column y the nibble 4y within its row. Moves are performed with
+ * precomputed 65536-entry row and column tables, which also hold the score gained by each row.
+ * Since a nibble can hold exponents up to 15, tiles of value 32768 are never merged.
+ */
+public class BitBoardT implements GameBoard {
+
+	// Lookup tables shared by every board
+	private static final int SIZE = 4;
+	private static final int MAX_EXPONENT = 15;
+	private static final char[] ROW_LEFT = new char[65536];
+	private static final char[] ROW_RIGHT = new char[65536];
+	private static final long[] COL_UP = new long[65536];
+	private static final long[] COL_DOWN = new long[65536];
+	private static final int[] ROW_SCORE = new int[65536];
+	// number of merges (bits 4-6) and highest merged exponent (bits 0-3) of each row
+	private static final char[] ROW_MERGES = new char[65536];
+
+	static {
+		int[] line = new int[SIZE];
+		int[] merges = new int[2];
+		for (int row = 0; row < 65536; row++) {
+			for (int i = 0; i < SIZE; i++) {
+				line[i] = (row >> (4 * i)) & 0xF;
+			}
+			int score = slideLeft(line, merges);
+			int result = 0;
+			for (int i = 0; i < SIZE; i++) {
+				result |= line[i] << (4 * i);
+			}
+			int reversedRow = reverseRow(row);
+			int reversedResult = reverseRow(result);
+			ROW_LEFT[row] = (char) result;
+			ROW_RIGHT[reversedRow] = (char) reversedResult;
+			COL_UP[row] = unpackColumn(result);
+			COL_DOWN[reversedRow] = unpackColumn(reversedResult);
+			// merges only happen within runs of equal tiles, so a row scores the same in both directions
+			ROW_SCORE[row] = score;
+			ROW_MERGES[row] = (char) ((merges[0] << 4) | merges[1]);
+		}
+	}
+
+	// State Variables
+	private long board;
+	private boolean status;
+	private int score;
+	private final int[][] cells = new int[SIZE][SIZE];
+	private TileSpawner spawner;
+	private final MoveResult result = new MoveResult();
+	private MoveDescription description; // null unless the travel of tiles is recorded
+	private volatile BoardSnapshot snapshot; // last committed state, read from any thread
+	private final long[] snapshotWords = new long[BoardSnapshot.WORDS];
+
+    /**
+     * @brief constructor
+     * @details generates an empty board spawning tiles with the original rule and a random seed
+     */
+	public BitBoardT() {
+		this(TileSpawner.legacy(ThreadLocalRandom.current().nextLong()));
+	}
+
+    /**
+     * @brief constructor
+     * @details generates an empty board
+     * @param spawner - the spawner choosing the value and the cell of new tiles
+     */
+	public BitBoardT(TileSpawner spawner) {
+		this.spawner = spawner;
+		reset();
+	}
+
+    /**
+     * @brief clears the board, the score and the status so the board can be reused for a new game
+     */
+	@Override
+	public void reset() {
+		board = 0L;
+		status = true;
+		score = 0;
+		publishSnapshot();
+	}
+
+    /**
+     * @brief clears the board for a new game
+     * @param size - the number of rows and columns, which must be 4
+     * @throws IllegalArgumentException - if the size is not 4
+     */
+	@Override
+	public void reset(int size) {
+		if (size != SIZE)
+			throw new IllegalArgumentException("A bitboard only supports 4x4 boards.");
+		reset();
+	}
+
+    /**
+     * @brief gets the number of rows (and columns) of the board
+     * @return 4, the only size a bitboard supports
+     */
+	@Override
+	public int getSize() {
+		return SIZE;
+	}
+
+    /**
+     * @brief gets the status of the game
+     * @return status (true -> game in progress; false -> game is finished)
+     */
+	@Override
+	public boolean getStatus() {
+		return status;
+	}
+
+    /**
+     * @brief sets the game status
+     * @param status - true for game in progress; false for game finished
+     */
+	@Override
+	public void setStatus(boolean status) {
+		this.status = status;
+	}
+
+    /**
+     * @brief gets the game board
+     * @details unpacks the bitboard into a grid owned by this board; the grid is overwritten on every call
+     * @return board
+     */
+	@Override
+	public int[][] getBoard() {
+		for (int i = 0; i < SIZE; i++) {
+			for (int j = 0; j < SIZE; j++) {
+				int exponent = getExponent(i, j);
+				cells[i][j] = exponent == 0 ? 0 : 1 << exponent;
+			}
+		}
+		return cells;
+	}
+
+    /**
+     * @brief gets the packed board
+     * @return the board with one 4-bit exponent per cell
+     */
+	public long getPackedBoard() {
+		return board;
+	}
+
+    /**
+     * @brief gets the current score
+     * @return the current score
+     */
+	@Override
+	public int getScore() {
+		return score;
+	}
+
+    /**
+     * @brief sets the cell at given x and y with given tile value
+     * @param x - row number
+     * @param y - column number
+     * @param tile - tile value
+     * @throws IndexOutOfBoundsException - if entered coordinate is located outside of the board
+     * @throws IllegalArgumentException - if the tile is not 0 or a power of two up to 32768
+     */
+	@Override
+	public void setCell(int x, int y, int tile) {
+		if (x < 0 || x > SIZE - 1 || y < 0 || y > SIZE - 1)
+			throw new IndexOutOfBoundsException("Trying to set a cell beyond the board boundaries.");
+		int shift = 4 * (SIZE * x + y);
+		board = (board & ~(0xFL << shift)) | ((long) toExponent(tile) << shift);
+	}
+
+    /**
+     * @brief gets the tile that wins the game
+     * @return 2048
+     */
+	@Override
+	public int getWinningTile() {
+		return 2048;
+	}
+
+    /**
+     * @brief determines whether the game is won
+     * @return true if the board contains value 2048 or higher; false otherwise
+     */
+	@Override
+	public boolean isWinner() {
+		// a nibble is 11 or more when bit 3 is set together with bit 2, or with bits 1 and 0
+		return (board & ((board << 1) | ((board << 2) & (board << 3))) & 0x8888888888888888L) != 0;
+	}
+
+    /**
+     * @brief gets the highest tile on the board
+     * @return the highest tile value; 0 for an empty board
+     */
+	@Override
+	public int getMaxTile() {
+		int max = 0;
+		for (int shift = 0; shift < 64; shift += 4) {
+			max = Math.max(max, (int) (board >>> shift) & 0xF);
+		}
+		return max == 0 ? 0 : 1 << max;
+	}
+
+    /**
+     * @brief gets the number of unoccupied cells
+     * @return the number of empty cells
+     */
+	@Override
+	public int getEmptyCellCount() {
+		return countEmptyCells(board);
+	}
+
+    /**
+     * @brief determines whether the board is fully occupied
+     * @return true if the board doesn't contain a tile with value 0; false otherwise
+     */
+	@Override
+	public boolean isBoardFull() {
+		return !hasZeroNibble(board, 0x1111111111111111L);
+	}
+
+    /**
+     * @brief determines whether there exist a valid move
+     * @return true if there is an empty cell or two adjacent tiles with the same value; false otherwise
+     */
+	@Override
+	public boolean isAnyValidMove() {
+		return !isBoardFull() || hasZeroNibble(board ^ (board >>> 4), 0x0111011101110111L)
+				|| hasZeroNibble(board ^ (board >>> 16), 0x0000111111111111L);
+	}
+
+    /**
+     * @brief generates a random tile value with the tile spawner of the board
+     * @return a random tile value
+     */
+	@Override
+	public int generateRandomTile() {
+		return spawner.nextTile();
+	}
+
+    /**
+     * @brief generates random board coordinates of a cell that is not occupied
+     * @throws UnsupportedOperationException - if the board if fully occupied
+     * @return randomly generated coordinates of an unoccupied cell
+     */
+	@Override
+	public int[] generateRandomFreeCellCoord() {
+		int cell = generateRandomFreeCell();
+		return new int[] { cell / SIZE, cell % SIZE };
+	}
+
+    /**
+     * @brief picks a random unoccupied cell uniformly among the empty nibbles
+     * @throws UnsupportedOperationException - if the board if fully occupied
+     * @return the index (x * 4 + y) of a randomly chosen unoccupied cell
+     */
+	@Override
+	public int generateRandomFreeCell() {
+		long occupied = board | (board >>> 1);
+		occupied |= occupied >>> 2;
+		long empty = ~occupied & 0x1111111111111111L;
+		if (empty == 0)
+			throw new UnsupportedOperationException("Random free cell cannot be generated since the board is full.");
+		return spawner.nextCell(empty) / 4;
+	}
+
+    /**
+     * @brief gets the spawner choosing the value and the cell of new tiles
+     * @return the tile spawner of the board
+     */
+	@Override
+	public TileSpawner getSpawner() {
+		return spawner;
+	}
+
+    /**
+     * @brief replaces the spawner choosing the value and the cell of new tiles
+     * @param spawner - a tile spawner
+     */
+	@Override
+	public void setSpawner(TileSpawner spawner) {
+		this.spawner = spawner;
+	}
+
+    /**
+     * @brief attaches a description that every following move records the travel of its tiles into
+     * @param description - the description to overwrite on every move, or null to stop describing moves
+     */
+	@Override
+	public void setMoveDescription(MoveDescription description) {
+		this.description = description;
+	}
+
+    /**
+     * @brief gets the number of longs a packed state of the board takes
+     * @return 2: the packed board and the score
+     */
+	@Override
+	public int getPackedStateLength() {
+		return 2;
+	}
+
+    /**
+     * @brief writes the packed board and the score into two longs
+     * @param words - the array to write into
+     * @param offset - the index of the first long to write
+     */
+	@Override
+	public void packState(long[] words, int offset) {
+		words[offset] = board;
+		words[offset + 1] = score;
+	}
+
+    /**
+     * @brief restores the packed board and the score written by packState
+     * @param words - the array holding the state
+     * @param offset - the index of the first long of the state
+     */
+	@Override
+	public void unpackState(long[] words, int offset) {
+		board = words[offset];
+		score = (int) words[offset + 1];
+		status = true;
+	}
+
+    /**
+     * @brief publishes an immutable snapshot of the tiles, the score and the status for other threads
+     */
+	@Override
+	public void publishSnapshot() {
+		for (int i = 0; i < BoardSnapshot.WORDS; i++) {
+			snapshotWords[i] = 0;
+		}
+		for (int i = 0; i < SIZE * SIZE; i++) {
+			BoardSnapshot.pack(snapshotWords, i, getExponent(i / SIZE, i % SIZE));
+		}
+		snapshot = new BoardSnapshot(SIZE, score, status, snapshotWords);
+	}
+
+    /**
+     * @brief gets the last snapshot published
+     * @return the snapshot
+     */
+	@Override
+	public BoardSnapshot getSnapshot() {
+		return snapshot;
+	}
+
+    /**
+     * @brief checks whether performing a given potential move would change the state of the board
+     * @param move - a move to be checked
+     * @return true if performing a given move would have changed the state of the board; false otherwise
+     */
+	@Override
+	public boolean isBoardChangedOnMove(MoveT move) {
+		return moveBoard(board, move) != board;
+	}
+
+    /**
+     * @brief performs a given move and updates the state of the board accordingly
+     * @param move - a move to be performed
+     */
+	@Override
+	public void move(MoveT move) {
+		applyMove(move);
+	}
+
+    /**
+     * @brief performs a given move in a single pass and describes its outcome
+     * @details a move that changes nothing leaves the board and the score untouched
+     * @param move - a move to be performed
+     * @return the outcome of the move; owned by the board and overwritten by its next move
+     */
+	@Override
+	public MoveResult applyMove(MoveT move) {
+		if (description != null)
+			describeMove(board, move);
+		long moved = moveBoard(board, move);
+		if (moved == board) {
+			result.set(false, 0, 0, 0, countEmptyCells(board));
+			return result;
+		}
+		long rows = (move == MoveT.left || move == MoveT.right) ? board : transpose(board);
+		int gained = 0;
+		int merges = 0;
+		int maxMerged = 0;
+		for (int shift = 0; shift < 64; shift += 16) {
+			int row = (int) ((rows >>> shift) & 0xFFFF);
+			gained += ROW_SCORE[row];
+			merges += ROW_MERGES[row] >> 4;
+			maxMerged = Math.max(maxMerged, ROW_MERGES[row] & 0xF);
+		}
+		board = moved;
+		score += gained;
+		result.set(true, gained, merges, merges == 0 ? 0 : 1 << maxMerged, countEmptyCells(moved));
+		return result;
+	}
+
+    /**
+     * @brief packs a 4x4 grid of tiles into a bitboard
+     * @param grid - tile values, as returned by GameBoard.getBoard
+     * @throws IllegalArgumentException - if the grid is not 4x4 or holds a tile that cannot be stored
+     * @return the packed board
+     */
+	public static long pack(int[][] grid) {
+		if (grid.length != SIZE)
+			throw new IllegalArgumentException("Only 4x4 boards can be packed.");
+		long packed = 0L;
+		for (int i = 0; i < SIZE; i++) {
+			if (grid[i].length != SIZE)
+				throw new IllegalArgumentException("Only 4x4 boards can be packed.");
+			for (int j = 0; j < SIZE; j++) {
+				packed |= (long) toExponent(grid[i][j]) << (4 * (SIZE * i + j));
+			}
+		}
+		return packed;
+	}
+
+    /**
+     * @brief performs a move on a packed board
+     * @param board - a packed board
+     * @param move - a move to be performed
+     * @return the packed board after the move
+     */
+	static long moveBoard(long board, MoveT move) {
+		return switch (move) {
+			case left -> moveRows(board, ROW_LEFT);
+			case right -> moveRows(board, ROW_RIGHT);
+			case up -> moveColumns(board, COL_UP);
+			case down -> moveColumns(board, COL_DOWN);
+		};
+	}
+
+    /**
+     * @brief computes the score gained by performing a move on a packed board
+     * @param board - a packed board
+     * @param move - a move to be performed
+     * @return the sum of the tiles created by merging
+     */
+	static int moveScore(long board, MoveT move) {
+		long rows = (move == MoveT.left || move == MoveT.right) ? board : transpose(board);
+		return ROW_SCORE[(int) (rows & 0xFFFF)]
+				+ ROW_SCORE[(int) ((rows >>> 16) & 0xFFFF)]
+				+ ROW_SCORE[(int) ((rows >>> 32) & 0xFFFF)]
+				+ ROW_SCORE[(int) (rows >>> 48)];
+	}
+
+    /**
+     * @brief counts the unoccupied cells of a packed board
+     * @param board - a packed board
+     * @return the number of empty cells
+     */
+	static int countEmptyCells(long board) {
+		long occupied = board | (board >>> 1);
+		occupied |= occupied >>> 2;
+		return 16 - Long.bitCount(occupied & 0x1111111111111111L);
+	}
+
+    /**
+     * @brief transposes a packed board
+     * @param x - a packed board
+     * @return the packed board with rows and columns swapped
+     */
+	static long transpose(long x) {
+		long a1 = x & 0xF0F00F0FF0F00F0FL;
+		long a2 = x & 0x0000F0F00000F0F0L;
+		long a3 = x & 0x0F0F00000F0F0000L;
+		long a = a1 | (a2 << 12) | (a3 >>> 12);
+		long b1 = a & 0xFF00FF0000FF00FFL;
+		long b2 = a & 0x00FF00FF00000000L;
+		long b3 = a & 0x00000000FF00FF00L;
+		return b1 | (b2 >>> 24) | (b3 << 24);
+	}
+
+    /**
+     * @brief gets the exponent stored in the cell at given x and y
+     */
+	private int getExponent(int x, int y) {
+		return (int) ((board >>> (4 * (SIZE * x + y))) & 0xF);
+	}
+
+    /**
+     * @brief records the travel of every tile of a board during a move into the attached description
+     * @details walks the lines like BoardT does, since the move tables only give the result of a move
+     */
+	private void describeMove(long before, MoveT move) {
+		description.start(SIZE);
+		int step = BoardT.lineStep(move, SIZE);
+		for (int line = 0; line < SIZE; line++) {
+			int start = BoardT.lineStart(move, line, SIZE);
+			int target = start;
+			int pending = 0;
+			int pendingSource = 0;
+			for (int k = 0, index = start; k < SIZE; k++, index += step) {
+				int exponent = (int) ((before >>> (4 * index)) & 0xF);
+				if (exponent == 0) {
+					continue;
+				}
+				if (exponent == pending && exponent < MAX_EXPONENT) {
+					description.record(pendingSource, target);
+					description.record(index, target);
+					target += step;
+					pending = 0;
+				} else {
+					if (pending != 0) {
+						description.record(pendingSource, target);
+						target += step;
+					}
+					pending = exponent;
+					pendingSource = index;
+				}
+			}
+			if (pending != 0)
+				description.record(pendingSource, target);
+		}
+	}
+
+    /**
+     * @brief applies a row table to each of the four rows of a packed board
+     */
+	private static long moveRows(long board, char[] table) {
+		return (long) table[(int) (board & 0xFFFF)]
+				| (long) table[(int) ((board >>> 16) & 0xFFFF)] << 16
+				| (long) table[(int) ((board >>> 32) & 0xFFFF)] << 32
+				| (long) table[(int) (board >>> 48)] << 48;
+	}
+
+    /**
+     * @brief applies a column table to each of the four columns of a packed board
+     */
+	private static long moveColumns(long board, long[] table) {
+		long t = transpose(board);
+		return table[(int) (t & 0xFFFF)]
+				| table[(int) ((t >>> 16) & 0xFFFF)] << 4
+				| table[(int) ((t >>> 32) & 0xFFFF)] << 8
+				| table[(int) (t >>> 48)] << 12;
+	}
+
+    /**
+     * @brief determines whether any of the nibbles selected by a mask is zero
+     * @param x - a packed value
+     * @param mask - the lowest bit of every nibble to be checked
+     */
+	private static boolean hasZeroNibble(long x, long mask) {
+		long nonZero = x | (x >>> 1);
+		nonZero |= nonZero >>> 2;
+		return (~nonZero & mask) != 0;
+	}
+
+    /**
+     * @brief slides and merges a row of exponents to the left, the same way BoardT does
+     * @param line - a row of exponents to be modified
+     * @param merges - receives the number of merges and the highest merged exponent
+     * @return the score gained by the merges
+     */
+	private static int slideLeft(int[] line, int[] merges) {
+		int score = 0;
+		merges[0] = 0;
+		merges[1] = 0;
+		compressLeft(line);
+		for (int j = 0; j < SIZE - 1; j++) {
+			if (line[j] == line[j + 1] && line[j] != 0 && line[j] < MAX_EXPONENT) {
+				line[j]++;
+				score += 1 << line[j];
+				merges[0]++;
+				merges[1] = Math.max(merges[1], line[j]);
+				line[j + 1] = 0;
+			}
+		}
+		compressLeft(line);
+		return score;
+	}
+
+    /**
+     * @brief compresses the exponents in a given row to the left
+     */
+	private static void compressLeft(int[] line) {
+		int position = 0;
+		for (int j = 0; j < SIZE; j++) {
+			if (line[j] != 0) {
+				line[position] = line[j];
+				if (j != position) {
+					line[j] = 0;
+				}
+				position++;
+			}
+		}
+	}
+
+    /**
+     * @brief reverses the order of the four nibbles of a row
+     */
+	private static int reverseRow(int row) {
+		return ((row & 0xF) << 12) | ((row & 0xF0) << 4) | ((row >> 4) & 0xF0) | ((row >> 12) & 0xF);
+	}
+
+    /**
+     * @brief spreads the four nibbles of a row over the first column of a packed board
+     */
+	private static long unpackColumn(int row) {
+		long r = row;
+		return (r & 0xFL) | ((r & 0xF0L) << 12) | ((r & 0xF00L) << 24) | ((r & 0xF000L) << 36);
+	}
+
+    /**
+     * @brief converts a tile value to its exponent
+     * @throws IllegalArgumentException - if the tile is not 0 or a power of two up to 32768
+     */
+	private static int toExponent(int tile) {
+		if (tile == 0)
+			return 0;
+		if (tile < 2 || (tile & (tile - 1)) != 0 || tile > (1 << MAX_EXPONENT))
+			throw new IllegalArgumentException("Tile value cannot be stored in a bitboard cell.");
+		return Integer.numberOfTrailingZeros(tile);
+	}
+}
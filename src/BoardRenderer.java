@@ -0,0 +1,305 @@
+package src;
+
+import java.awt.*;
+import java.awt.event.ActionListener;
+import java.awt.font.GlyphVector;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import javax.swing.*;
+
+/**
+ * @brief A component painting the board and animating moves with Java2D
+ * @details Tiles are painted into a back buffer reused across frames, on top of a cached image of the
+ * empty board, with tile colors and pre-laid-out labels taken from tables indexed by tile exponent.
+ * A move is animated from its MoveDescription: tiles slide to their destinations, then merged tiles
+ * pop and spawned tiles grow. A Swing timer drives a fixed-timestep clock (one step per 1/60 s, with
+ * late ticks catching up by several steps), so animations last the same time whatever the frame rate.
+ * A move arriving during an animation collapses it: the board jumps to the end of the running
+ * animation and the new one starts from there, so moves never queue up behind each other.
+ */
+public class BoardRenderer extends JComponent {
+    // Number of tile exponents the tables cover (tiles up to 2^31)
+    private static final int EXPONENTS = 32;
+
+    // Length of an animation step and of the two phases of an animation, in steps
+    private static final long STEP_NANOS = 1000000000L / 60;
+    private static final int SLIDE_STEPS = 7;
+    private static final int POP_STEPS = 6;
+
+    // Spacing between the tiles and around the board, in pixels
+    private static final int GAP = 10;
+
+    private static final Color BOARD_COLOR = new Color(187, 173, 160);
+
+    // Colors, text colors and labels indexed by tile exponent (0 for an empty cell)
+    private static final Color[] TILE_COLORS = new Color[EXPONENTS];
+    private static final Color[] TEXT_COLORS = new Color[EXPONENTS];
+    private static final String[] TILE_TEXT = new String[EXPONENTS];
+
+    static {
+        Color[] known = {
+            new Color(204, 192, 179), new Color(238, 228, 218), new Color(237, 224, 200),
+            new Color(242, 177, 121), new Color(245, 149, 99), new Color(246, 124, 95),
+            new Color(246, 94, 59), new Color(237, 207, 114), new Color(237, 204, 97),
+            new Color(237, 200, 80), new Color(237, 197, 63), new Color(237, 194, 46)
+        };
+        Color beyond = new Color(60, 58, 50);
+        for (int exponent = 0; exponent < EXPONENTS; exponent++) {
+            TILE_COLORS[exponent] = exponent < known.length ? known[exponent] : beyond;
+            TEXT_COLORS[exponent] = exponent > 2 ? Color.WHITE : Color.DARK_GRAY;
+            TILE_TEXT[exponent] = exponent == 0 ? "" : String.valueOf(1L << exponent);
+        }
+    }
+
+    // State Variables
+    private int size;
+    private byte[] shown;      // exponents of the board at the end of the current animation
+    private byte[] previous;   // exponents of the board before the animated move
+    private int[] destination; // cell each tile of the previous board slides to, -1 for an empty cell
+    private int[] arrivals;    // number of tiles sliding to each cell
+    private boolean[] popping; // cells where two tiles merged
+    private boolean[] growing; // cells where a tile was spawned
+
+    private final Timer timer;
+    private boolean animating;
+    private int step;
+    private long lastTick;
+    private long pendingNanos;
+
+    // Back buffer, empty board and labels, rebuilt when the size of the component or the board changes
+    private BufferedImage buffer;
+    private Graphics2D bufferGraphics;
+    private BufferedImage background;
+    private int layoutSize;
+    private int tileSize, originX, originY, arc;
+    private final GlyphVector[] labels = new GlyphVector[EXPONENTS];
+    private final float[] labelX = new float[EXPONENTS];
+    private final float[] labelY = new float[EXPONENTS];
+
+    /**
+     * @brief Constructor
+     * @param size The number of rows and columns of the board
+     */
+    public BoardRenderer(int size) {
+        ActionListener tick = e -> tick();
+        timer = new Timer((int) (STEP_NANOS / 1000000), tick);
+        setOpaque(true);
+        setDoubleBuffered(false); // painted from its own back buffer
+        reset(size);
+    }
+
+    /**
+     * @brief Clears the board, stopping any animation
+     * @param size The number of rows and columns of the board
+     */
+    public void reset(int size) {
+        if (size != this.size) {
+            this.size = size;
+            shown = new byte[size * size];
+            previous = new byte[size * size];
+            destination = new int[size * size];
+            arrivals = new int[size * size];
+            popping = new boolean[size * size];
+            growing = new boolean[size * size];
+        } else {
+            Arrays.fill(shown, (byte) 0);
+        }
+        stopAnimation();
+        repaint();
+    }
+
+    /**
+     * @brief Shows a board without animation
+     * @param board The board state
+     */
+    public void setBoard(int[][] board) {
+        copyBoard(board, shown);
+        stopAnimation();
+        repaint();
+    }
+
+    /**
+     * @brief Animates a move from the board shown to a new board
+     * @details Cells of the new board that no tile travelled to hold spawned tiles. A running
+     * animation is collapsed to its end first. A description of another board size is not animated.
+     * @param board The board state after the move and the spawn
+     * @param move The travel of the tiles during the move
+     */
+    public void animateMove(int[][] board, MoveDescription move) {
+        if (move.getSize() != size) {
+            setBoard(board);
+            return;
+        }
+        byte[] swap = previous;
+        previous = shown;
+        shown = swap;
+        copyBoard(board, shown);
+
+        int cells = size * size;
+        Arrays.fill(arrivals, 0);
+        for (int cell = 0; cell < cells; cell++) {
+            int target = previous[cell] == 0 ? -1 : move.getDestination(cell);
+            destination[cell] = target;
+            if (target >= 0)
+                arrivals[target]++;
+        }
+        for (int cell = 0; cell < cells; cell++) {
+            popping[cell] = arrivals[cell] > 1;
+            growing[cell] = arrivals[cell] == 0 && shown[cell] != 0;
+        }
+
+        step = 0;
+        pendingNanos = 0;
+        lastTick = System.nanoTime();
+        animating = true;
+        timer.restart();
+        repaint();
+    }
+
+    /**
+     * @brief Advances the animation clock by the whole steps elapsed since the last tick
+     */
+    private void tick() {
+        long now = System.nanoTime();
+        pendingNanos += now - lastTick;
+        lastTick = now;
+        while (pendingNanos >= STEP_NANOS && step < SLIDE_STEPS + POP_STEPS) {
+            pendingNanos -= STEP_NANOS;
+            step++;
+        }
+        if (step >= SLIDE_STEPS + POP_STEPS)
+            stopAnimation();
+        repaint();
+    }
+
+    /**
+     * @brief Ends the running animation, leaving the board at its end
+     */
+    private void stopAnimation() {
+        animating = false;
+        timer.stop();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        if (getWidth() <= 0 || getHeight() <= 0)
+            return;
+        if (buffer == null || buffer.getWidth() != getWidth() || buffer.getHeight() != getHeight() || layoutSize != size)
+            layoutBoard();
+        Graphics2D g2 = bufferGraphics;
+        g2.drawImage(background, 0, 0, null);
+        if (animating && step < SLIDE_STEPS) {
+            float t = (float) step / SLIDE_STEPS;
+            for (int cell = 0; cell < size * size; cell++) {
+                int target = destination[cell];
+                if (target < 0)
+                    continue;
+                int x = Math.round(cellX(cell) + (cellX(target) - cellX(cell)) * t);
+                int y = Math.round(cellY(cell) + (cellY(target) - cellY(cell)) * t);
+                paintTile(g2, x, y, previous[cell], 1f);
+            }
+        } else {
+            float t = animating ? (float) (step - SLIDE_STEPS) / POP_STEPS : 1f;
+            for (int cell = 0; cell < size * size; cell++) {
+                if (shown[cell] == 0)
+                    continue;
+                float scale = 1f;
+                if (animating && popping[cell])
+                    scale = 1f + 0.2f * (float) Math.sin(Math.PI * t);
+                else if (animating && growing[cell])
+                    scale = t;
+                paintTile(g2, cellX(cell), cellY(cell), shown[cell], scale);
+            }
+        }
+        g.drawImage(buffer, 0, 0, null);
+    }
+
+    /**
+     * @brief Paints one tile with its top left corner at the given position, scaled around its center
+     */
+    private void paintTile(Graphics2D g2, int x, int y, int exponent, float scale) {
+        int side = Math.round(tileSize * scale);
+        if (side <= 0)
+            return;
+        int offset = (tileSize - side) / 2;
+        g2.setColor(TILE_COLORS[exponent]);
+        g2.fillRoundRect(x + offset, y + offset, side, side, arc, arc);
+        if (scale >= 0.6f) {
+            g2.setColor(TEXT_COLORS[exponent]);
+            g2.drawGlyphVector(labels[exponent], x + tileSize / 2f + labelX[exponent], y + tileSize / 2f + labelY[exponent]);
+        }
+    }
+
+    /**
+     * @brief Sizes the tiles to the component and rebuilds the back buffer, the empty board and the labels
+     */
+    private void layoutBoard() {
+        int width = getWidth(), height = getHeight();
+        layoutSize = size;
+        tileSize = Math.max(1, (Math.min(width, height) - (size + 1) * GAP) / size);
+        int side = size * tileSize + (size + 1) * GAP;
+        originX = (width - side) / 2;
+        originY = (height - side) / 2;
+        arc = Math.max(4, tileSize / 8);
+
+        if (bufferGraphics != null)
+            bufferGraphics.dispose();
+        GraphicsConfiguration config = getGraphicsConfiguration();
+        buffer = config != null ? config.createCompatibleImage(width, height)
+                : new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        bufferGraphics = buffer.createGraphics();
+        bufferGraphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        bufferGraphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+
+        background = config != null ? config.createCompatibleImage(width, height)
+                : new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = background.createGraphics();
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.setColor(BOARD_COLOR);
+        g2.fillRect(0, 0, width, height);
+        g2.setColor(TILE_COLORS[0]);
+        for (int cell = 0; cell < size * size; cell++) {
+            g2.fillRoundRect(cellX(cell), cellY(cell), tileSize, tileSize, arc, arc);
+        }
+        g2.dispose();
+
+        // smaller labels for tiles above 512 and above 8192
+        Font large = new Font("Helvetica Neue", Font.BOLD, Math.round(tileSize * 0.43f));
+        Font medium = new Font("Helvetica Neue", Font.BOLD, Math.round(tileSize * 0.34f));
+        Font small = new Font("Helvetica Neue", Font.BOLD, Math.round(tileSize * 0.26f));
+        for (int exponent = 1; exponent < EXPONENTS; exponent++) {
+            Font font = exponent > 13 ? small : exponent > 9 ? medium : large;
+            labels[exponent] = font.createGlyphVector(bufferGraphics.getFontRenderContext(), TILE_TEXT[exponent]);
+            Rectangle2D bounds = labels[exponent].getVisualBounds();
+            labelX[exponent] = (float) -(bounds.getX() + bounds.getWidth() / 2);
+            labelY[exponent] = (float) -(bounds.getY() + bounds.getHeight() / 2);
+        }
+    }
+
+    /**
+     * @brief Gets the left edge of a cell in pixels
+     */
+    private int cellX(int cell) {
+        return originX + GAP + (cell % size) * (tileSize + GAP);
+    }
+
+    /**
+     * @brief Gets the top edge of a cell in pixels
+     */
+    private int cellY(int cell) {
+        return originY + GAP + (cell / size) * (tileSize + GAP);
+    }
+
+    /**
+     * @brief Converts a grid of tile values to exponents
+     */
+    private void copyBoard(int[][] board, byte[] exponents) {
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                int value = board[i][j];
+                exponents[i * size + j] = (byte) (value == 0 ? 0 : Integer.numberOfTrailingZeros(value));
+            }
+        }
+    }
+}
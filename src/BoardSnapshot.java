@@ -0,0 +1,161 @@
+/**
+ * @File: BoardSnapshot.java
+ * @Description: an immutable copy of a board, safe to read from any thread
+ */
+
+package src;
+
+/**
+ * @brief An immutable ADT holding the tiles, the score and the status of a board at one point
+ * @details Published by a board through a volatile reference each time its owner commits a change,
+ * so any thread can read a consistent board without locking. The exponents of the cells, indexed
+ * by x * size + y, are packed 12 to a long in 5 bits each, and the whole snapshot is a single
+ * object of fixed size whatever the board size.
+ */
+public final class BoardSnapshot {
+
+	// Exponents in a snapshot: 12 of 5 bits per long, up to MAX_SIZE * MAX_SIZE cells
+	static final int WORDS = 6;
+	static final int WORD_CELLS = 12;
+	static final int EXPONENT_BITS = 5;
+
+	// State Variables
+	private final int size;
+	private final int score;
+	private final boolean status;
+	private final long cells0, cells1, cells2, cells3, cells4, cells5;
+
+    /**
+     * @brief constructor
+     * @param size - the number of rows and columns of the board
+     * @param score - the score
+     * @param status - true if the game is in progress; false if it is finished
+     * @param words - WORDS longs of packed exponents, copied
+     */
+	BoardSnapshot(int size, int score, boolean status, long[] words) {
+		this.size = size;
+		this.score = score;
+		this.status = status;
+		cells0 = words[0];
+		cells1 = words[1];
+		cells2 = words[2];
+		cells3 = words[3];
+		cells4 = words[4];
+		cells5 = words[5];
+	}
+
+    /**
+     * @brief adds the exponent of a cell to the packed exponents of a snapshot being made
+     * @param words - WORDS longs, cleared before the first cell
+     * @param cell - the index of the cell
+     * @param exponent - the exponent of its tile, 0 if it is empty
+     */
+	static void pack(long[] words, int cell, int exponent) {
+		words[cell / WORD_CELLS] |= (long) exponent << (EXPONENT_BITS * (cell % WORD_CELLS));
+	}
+
+    /**
+     * @brief gets the number of rows (and columns) of the board
+     * @return the size of the board
+     */
+	public int getSize() {
+		return size;
+	}
+
+    /**
+     * @brief gets the score
+     * @return the score
+     */
+	public int getScore() {
+		return score;
+	}
+
+    /**
+     * @brief gets the status of the game
+     * @return status (true -> game in progress; false -> game is finished)
+     */
+	public boolean getStatus() {
+		return status;
+	}
+
+    /**
+     * @brief gets the exponent of the tile of a cell
+     * @param cell - the index of the cell, x * size + y
+     * @return e for the tile 2^e, or 0 for an empty cell
+     * @throws IndexOutOfBoundsException - if the cell is not on the board
+     */
+	public int getExponent(int cell) {
+		if (cell < 0 || cell >= size * size)
+			throw new IndexOutOfBoundsException("Cell " + cell + " is not on the board.");
+		long word;
+		switch (cell / WORD_CELLS) {
+		case 0:
+			word = cells0;
+			break;
+		case 1:
+			word = cells1;
+			break;
+		case 2:
+			word = cells2;
+			break;
+		case 3:
+			word = cells3;
+			break;
+		case 4:
+			word = cells4;
+			break;
+		default:
+			word = cells5;
+			break;
+		}
+		return (int) (word >>> (EXPONENT_BITS * (cell % WORD_CELLS))) & 0x1F;
+	}
+
+    /**
+     * @brief gets the tile of a cell
+     * @param x - row number
+     * @param y - column number
+     * @return the value of the tile, or 0 for an empty cell
+     * @throws IndexOutOfBoundsException - if the cell is not on the board
+     */
+	public int getTile(int x, int y) {
+		if (x < 0 || x > size - 1 || y < 0 || y > size - 1)
+			throw new IndexOutOfBoundsException("Cell (" + x + ", " + y + ") is not on the board.");
+		int exponent = getExponent(x * size + y);
+		return exponent == 0 ? 0 : 1 << exponent;
+	}
+
+    /**
+     * @brief gets the highest tile
+     * @return the value of the highest tile, or 0 for an empty board
+     */
+	public int getMaxTile() {
+		int max = 0;
+		for (int cell = 0; cell < size * size; cell++) {
+			max = Math.max(max, getExponent(cell));
+		}
+		return max == 0 ? 0 : 1 << max;
+	}
+
+    /**
+     * @brief determines whether the game is won
+     * @return true if the highest tile reaches the winning tile of the board size; false otherwise
+     */
+	public boolean isWinner() {
+		return getMaxTile() >= 1 << (11 + size - 4);
+	}
+
+    /**
+     * @brief gets the tiles as a grid
+     * @return a new grid of the tile values, owned by the caller
+     */
+	public int[][] getBoard() {
+		int[][] board = new int[size][size];
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				board[i][j] = getTile(i, j);
+			}
+		}
+		return board;
+	}
+}
@@ -0,0 +1,142 @@
+/**
+ * @File: BoardSymmetry.java
+ * @Description: maps packed 4x4 boards and moves through the eight symmetries of the square
+ */
+
+package src;
+
+/**
+ * @brief A utility for the dihedral symmetries of packed 4x4 boards
+ * @details A transform is a number from 0 to 7: bit 2 transposes the board, then bit 0 mirrors the
+ * columns and bit 1 mirrors the rows, which covers the four rotations with and without a mirror.
+ * Moving a board and then transforming it gives the same board as transforming it and then making
+ * the mapped move, so results computed for a canonical board can be translated back with unmapMove.
+ */
+public final class BoardSymmetry {
+
+	// Number of symmetries of the square
+	public static final int TRANSFORMS = 8;
+
+	private static final MoveT[] MOVES = MoveT.values();
+	private static final int[] INVERSE = new int[TRANSFORMS];
+	private static final MoveT[][] MOVE_MAP = new MoveT[TRANSFORMS][MOVES.length];
+	private static final MoveT[][] MOVE_UNMAP = new MoveT[TRANSFORMS][MOVES.length];
+
+	static {
+		long distinct = 0x0123456789ABCDEFL;
+		for (int t = 0; t < TRANSFORMS; t++) {
+			for (int u = 0; u < TRANSFORMS; u++) {
+				if (apply(apply(distinct, t), u) == distinct)
+					INVERSE[t] = u;
+			}
+		}
+		// a single tile away from the edges ends up in a different cell for each move
+		long single = 1L << (4 * 5);
+		for (int t = 0; t < TRANSFORMS; t++) {
+			for (MoveT move : MOVES) {
+				long expected = apply(BitBoardT.moveBoard(single, move), t);
+				for (MoveT mapped : MOVES) {
+					if (BitBoardT.moveBoard(apply(single, t), mapped) == expected) {
+						MOVE_MAP[t][move.ordinal()] = mapped;
+						MOVE_UNMAP[t][mapped.ordinal()] = move;
+					}
+				}
+			}
+		}
+	}
+
+    /**
+     * @brief private constructor, the class only holds static methods
+     */
+	private BoardSymmetry() {
+	}
+
+    /**
+     * @brief applies a transform to a packed board
+     * @param board - a packed board
+     * @param transform - a transform (0-7)
+     * @return the transformed board
+     */
+	public static long apply(long board, int transform) {
+		if ((transform & 4) != 0)
+			board = BitBoardT.transpose(board);
+		if ((transform & 1) != 0)
+			board = mirrorColumns(board);
+		if ((transform & 2) != 0)
+			board = mirrorRows(board);
+		return board;
+	}
+
+    /**
+     * @brief finds the transform mapping a board to its canonical form
+     * @details the canonical form is the smallest of the eight transformed boards (as unsigned values)
+     * @param board - a packed board
+     * @return the transform producing the canonical board
+     */
+	public static int canonicalTransform(long board) {
+		int best = 0;
+		long min = board;
+		for (int t = 1; t < TRANSFORMS; t++) {
+			long transformed = apply(board, t);
+			if (Long.compareUnsigned(transformed, min) < 0) {
+				min = transformed;
+				best = t;
+			}
+		}
+		return best;
+	}
+
+    /**
+     * @brief maps a board to its canonical form
+     * @param board - a packed board
+     * @return the canonical board, the same for all eight symmetric boards
+     */
+	public static long canonicalize(long board) {
+		return apply(board, canonicalTransform(board));
+	}
+
+    /**
+     * @brief gets the transform undoing a given transform
+     * @param transform - a transform (0-7)
+     * @return the inverse transform
+     */
+	public static int inverse(int transform) {
+		return INVERSE[transform];
+	}
+
+    /**
+     * @brief maps a move on a board to the equivalent move on the transformed board
+     * @param move - a move on the original board
+     * @param transform - a transform (0-7)
+     * @return the equivalent move on the transformed board
+     */
+	public static MoveT mapMove(MoveT move, int transform) {
+		return MOVE_MAP[transform][move.ordinal()];
+	}
+
+    /**
+     * @brief maps a move on a transformed board back to the equivalent move on the original board
+     * @param move - a move on the transformed board
+     * @param transform - the transform that was applied to the original board (0-7)
+     * @return the equivalent move on the original board
+     */
+	public static MoveT unmapMove(MoveT move, int transform) {
+		return MOVE_UNMAP[transform][move.ordinal()];
+	}
+
+    /**
+     * @brief reverses the order of the columns of a packed board
+     */
+	private static long mirrorColumns(long board) {
+		board = ((board >>> 4) & 0x0F0F0F0F0F0F0F0FL) | ((board & 0x0F0F0F0F0F0F0F0FL) << 4);
+		return ((board >>> 8) & 0x00FF00FF00FF00FFL) | ((board & 0x00FF00FF00FF00FFL) << 8);
+	}
+
+    /**
+     * @brief reverses the order of the rows of a packed board
+     */
+	private static long mirrorRows(long board) {
+		return (board << 48) | ((board << 16) & 0x0000FFFF00000000L)
+				| ((board >>> 16) & 0x00000000FFFF0000L) | (board >>> 48);
+	}
+}
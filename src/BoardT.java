@@ -6,56 +6,157 @@
 package src;
 
 // Import java libraries
-import java.util.Arrays;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * @brief An ADT representing the board of the game 2048
- * @details Stores the state and the status of the game
+ * @details Stores the state and the status of the game. The board has between MIN_SIZE and MAX_SIZE
+ * rows and columns, chosen when the game is created, and stores each cell as a byte exponent
+ * (0 -> empty, e -> tile 2^e) in a flat array indexed by x * size + y.
  */
-public class BoardT {
+public class BoardT implements GameBoard {
+
+	// Supported board sizes (the empty-cell mask holds up to 64 cells)
+	public static final int MIN_SIZE = 3;
+	public static final int MAX_SIZE = 8;
+
+	// Exponents in a packed state: 6 next to the score in the first long, then 12 of 5 bits per long
+	private static final int HEAD_CELLS = 6;
+	private static final int WORD_CELLS = 12;
 	
 	// State Variables
-	private int[][] board;
+	private int size;
+	private byte[] cells;
+	private int[][] grid; // tile values handed out by getBoard
 	private boolean status;
 	private int score; // New variable to track the score
+	private final MoveResult result = new MoveResult();
+	private TileSpawner spawner;
+	private MoveDescription description; // null unless the travel of tiles is recorded
+	private long emptyMask; // bit (x * size + y) is set when the cell at x and y is empty
+	private int maxExponent; // exponent of the highest tile on the board
+	private boolean equalTiles;      // two adjacent tiles of the same value exist
+	private boolean equalTilesKnown; // false once equalTiles may be out of date, until the next move or scan
+	private volatile BoardSnapshot snapshot; // last committed state, read from any thread
+	private final long[] snapshotWords = new long[BoardSnapshot.WORDS];
+
+	// Outcome of the move in progress, accumulated line by line
+	private boolean moveChanged;
+	private int moveScore, moveMerges, moveMaxMerged;
 
     /**
      * @brief constructor
-     * @details generates an empty board
+     * @details generates an empty 4x4 board spawning tiles with the original rule and a random seed
      */
 	public BoardT() {
-		int size = 4;
+		this(4);
+	}
+
+    /**
+     * @brief constructor
+     * @details generates an empty board spawning tiles with the original rule and a random seed
+     * @param size - the number of rows and columns
+     * @throws IllegalArgumentException - if the size is not between MIN_SIZE and MAX_SIZE
+     */
+	public BoardT(int size) {
+		this(size, TileSpawner.legacy(ThreadLocalRandom.current().nextLong()));
+	}
+
+    /**
+     * @brief constructor
+     * @details generates an empty 4x4 board
+     * @param spawner - the spawner choosing the value and the cell of new tiles
+     */
+	public BoardT(TileSpawner spawner) {
+		this(4, spawner);
+	}
+
+    /**
+     * @brief constructor
+     * @details generates an empty board
+     * @param size - the number of rows and columns
+     * @param spawner - the spawner choosing the value and the cell of new tiles
+     * @throws IllegalArgumentException - if the size is not between MIN_SIZE and MAX_SIZE
+     */
+	public BoardT(int size, TileSpawner spawner) {
+		this.spawner = spawner;
+		reset(size);
+	}
+
+    /**
+     * @brief clears the board, the score and the status so the board can be reused for a new game
+     */
+	@Override
+	public void reset() {
 		status = true;
 		score = 0; // Initialize score to 0
-		board = new int[size][size];
-		for (int i = 0; i < size; i++) {
-			for (int j = 0; j < size; j++) {
-				board[i][j] = 0;
-			}
+		for (int i = 0; i < cells.length; i++) {
+			cells[i] = 0;
+		}
+		emptyMask = cells.length == 64 ? -1L : (1L << cells.length) - 1;
+		maxExponent = 0;
+		equalTiles = false;
+		equalTilesKnown = true;
+		publishSnapshot();
+	}
+
+    /**
+     * @brief clears the board and changes its size for a new game
+     * @details only reallocates the cells when the size changes
+     * @param size - the number of rows and columns
+     * @throws IllegalArgumentException - if the size is not between MIN_SIZE and MAX_SIZE
+     */
+	@Override
+	public void reset(int size) {
+		if (size < MIN_SIZE || size > MAX_SIZE)
+			throw new IllegalArgumentException("Board size must be between " + MIN_SIZE + " and " + MAX_SIZE + ".");
+		if (cells == null || this.size != size) {
+			this.size = size;
+			cells = new byte[size * size];
+			grid = new int[size][size];
 		}
+		reset();
+	}
+
+    /**
+     * @brief gets the number of rows (and columns) of the board
+     * @return the size of the board
+     */
+	@Override
+	public int getSize() {
+		return size;
 	}
 
     /**
      * @brief gets the status of the game
      * @return status (true -> game in progress; false -> game is finished)
      */
+	@Override
 	public boolean getStatus() {
 		return status;
 	}
 
     /**
      * @brief gets the game board
+     * @details unpacks the exponents into a grid owned by this board; the grid is overwritten on every call,
+     * so other threads read getSnapshot instead
      * @return board
      */
+	@Override
 	public int[][] getBoard() {
-		return board;
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				grid[i][j] = toTile(cells[i * size + j]);
+			}
+		}
+		return grid;
 	}
 
     /**
      * @brief gets the current score
      * @return the current score
      */
+	@Override
 	public int getScore() {
 		return score;
 	}
@@ -66,93 +167,152 @@ public class BoardT {
      * @param y - column number
      * @param tile - tile value
      * @throws IndexOutOfBoundsException - if entered coordinate is located outside of the board
+     * @throws IllegalArgumentException - if the tile is neither 0 nor a power of two above 1
      */
+	@Override
 	public void setCell(int x, int y, int tile) {
-		int size = 4;
 		if (x < 0 || x > size - 1 || y < 0 || y > size - 1)
 			throw new IndexOutOfBoundsException("Trying to set a cell beyond the board boundaries.");
-		board[x][y] = tile;
+		if (tile != 0 && (tile < 2 || (tile & (tile - 1)) != 0))
+			throw new IllegalArgumentException("Tile value must be 0 or a power of two.");
+		int index = x * size + y;
+		int exponent = tile == 0 ? 0 : Integer.numberOfTrailingZeros(tile);
+		int previous = cells[index];
+		cells[index] = (byte) exponent;
+		updateEmptyMask(index, exponent);
+		if (exponent >= maxExponent)
+			maxExponent = exponent;
+		else if (previous == maxExponent)
+			maxExponent = findMaxExponent();
+		if (previous != 0 || exponent == 0)
+			equalTilesKnown = false;
+		else if (equalTilesKnown && !equalTiles)
+			equalTiles = hasEqualNeighbour(x, y, exponent); // a spawn only adds the pairs of its cell
 	}
 
     /**
      * @brief sets the game status
      * @param status - true for game in progress; false for game finished
      */
+	@Override
 	public void setStatus(boolean status) {
 		this.status = status;
 	}
 
+    /**
+     * @brief gets the tile that wins the game on a board of this size
+     * @return 2048 on a 4x4 board, doubled for every extra row and halved for every missing one
+     */
+	@Override
+	public int getWinningTile() {
+		return 1 << (11 + size - 4);
+	}
+
     /**
      * @brief determines whether the game is won 
-     * @return true if the board contains value 2048; false otherwise
+     * @details reads the running maximum tile, so it takes constant time
+     * @return true if the board contains the winning tile or higher; false otherwise
      */
+	@Override
 	public boolean isWinner() {
-		int size = 4;
-		for (int i = 0; i < size; i++) {
-			for (int j = 0; j < size; j++) {
-				if (board[i][j] == 2048) {
-					return true;
-				}
-			}
-		}
-		return false;
+		return maxExponent >= 11 + size - 4;
+	}
+
+    /**
+     * @brief gets the highest tile on the board
+     * @return the highest tile value; 0 for an empty board
+     */
+	@Override
+	public int getMaxTile() {
+		return toTile(maxExponent);
+	}
+
+    /**
+     * @brief gets the number of unoccupied cells
+     * @return the number of empty cells
+     */
+	@Override
+	public int getEmptyCellCount() {
+		return Long.bitCount(emptyMask);
 	}
 
     /**
      * @brief determines whether the board is fully occupied 
      * @return true if the board doesn't contain a tile with value 0; false otherwise
      */
+	@Override
 	public boolean isBoardFull() {
-		int size = 4;
-		for (int i = 0; i < size; i++) {
-			for (int j = 0; j < size; j++) {
-				if (board[i][j] == 0) {
-					return false;
-				}
-			}
-		}
-		return true;
+		return emptyMask == 0;
 	}
 
     /**
      * @brief determines whether there exist a valid move
-     * @return true if there exist a valid move; false otherwise
+     * @details reads the empty-cell mask, and on a full board whether equal tiles are adjacent. A move from
+     * a board with at most one empty cell finds that out as it slides its lines, and the spawn filling the
+     * last cell adds the neighbours of that cell, so it takes constant time; the board is only scanned
+     * after a tile was overwritten or removed
+     * @return true if there is an empty cell or two adjacent tiles with the same value; false otherwise
      */
+	@Override
 	public boolean isAnyValidMove() {
-		int size = 4;
-		for (int i = 0; i < size - 1; i++) {
-			for (int j = 0; j < size - 1; j++) {
-				if (board[i][j] == board[i + 1][j] || board[i][j] == board[i][j + 1]) {
-					return true;
-				}
-			}
+		if (emptyMask != 0)
+			return true;
+		if (!equalTilesKnown) {
+			equalTiles = hasAdjacentEqualTiles();
+			equalTilesKnown = true;
 		}
-		for (int i = 0; i < size - 1; i++) {
-			if (board[i][size - 1] == board[i + 1][size - 1]) {
+		return equalTiles;
+	}
+
+    /**
+     * @brief determines whether a slid line holds two equal tiles next to each other or next to the line slid before
+     * @param start - the index of the first cell of the line
+     * @param end - the index after the last tile of the line
+     * @param step - the index difference between two consecutive cells of the line
+     * @param across - the index difference to the same cell of the line slid before, or 0 for the first line
+     */
+	private boolean hasEqualTilesInLine(int start, int end, int step, int across) {
+		for (int index = start; index != end; index += step) {
+			if ((index != start && cells[index - step] == cells[index])
+					|| (across != 0 && cells[index - across] == cells[index]))
 				return true;
-			}
 		}
-		for (int j = 0; j < size - 1; j++) {
-			if (board[size - 1][j] == board[size - 1][j + 1]) {
-				return true;
+		return false;
+	}
+
+    /**
+     * @brief determines whether a tile has a horizontal or vertical neighbour of the same value
+     */
+	private boolean hasEqualNeighbour(int x, int y, int exponent) {
+		int index = x * size + y;
+		return (y > 0 && cells[index - 1] == exponent) || (y < size - 1 && cells[index + 1] == exponent)
+				|| (x > 0 && cells[index - size] == exponent) || (x < size - 1 && cells[index + size] == exponent);
+	}
+
+    /**
+     * @brief scans the board for two horizontally or vertically adjacent tiles with the same value
+     * @details only needed once the board is full, since a move is always possible otherwise
+     */
+	private boolean hasAdjacentEqualTiles() {
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				int index = i * size + j;
+				if (j < size - 1 && cells[index] == cells[index + 1])
+					return true;
+				if (i < size - 1 && cells[index] == cells[index + size])
+					return true;
 			}
 		}
 		return false;
 	}
 
     /**
-     * @brief generates a random tile value based on the size of the board
-     * @return a random tile value - 2,4, or 8
+     * @brief generates a random tile value with the tile spawner of the board
+     * @return a random tile value
      */
+	@Override
 	public int generateRandomTile() {
-		int size = 4;
-		Random rand = new Random();
-		int rndInt = rand.nextInt(size - 1);
-		if (rndInt == 0 || rndInt == 1)
-			return 2;
-		else if (rndInt == 2 || rndInt == 3)
-			return 4;
-		return 8;
+		return spawner.nextTile();
 	}
 
     /**
@@ -160,179 +320,340 @@ public class BoardT {
      * @throws UnsupportedOperationException - if the board if fully occupied
      * @return randomly generated coordinates of an unoccupied cell
      */
+	@Override
 	public int[] generateRandomFreeCellCoord() {
-		if (isBoardFull())
+		int cell = generateRandomFreeCell();
+		return new int[] { cell / size, cell % size };
+	}
+
+    /**
+     * @brief picks a random unoccupied cell uniformly from the empty-cell mask
+     * @details the cell is selected from the mask in a fixed number of steps, whatever the number of
+     * empty cells, and nothing is allocated
+     * @throws UnsupportedOperationException - if the board if fully occupied
+     * @return the index (x * size + y) of a randomly chosen unoccupied cell
+     */
+	@Override
+	public int generateRandomFreeCell() {
+		if (emptyMask == 0)
 			throw new UnsupportedOperationException("Random free cell cannot be generated since the board is full.");
-		int size = 4;
-		int x, y;
-		Random rand = new Random();
-		do {
-			x = rand.nextInt(size);
-			y = rand.nextInt(size);
-		} while (board[x][y] != 0);
-		return new int[] { x, y };
+		return spawner.nextCell(emptyMask);
+	}
+
+    /**
+     * @brief gets the spawner choosing the value and the cell of new tiles
+     * @return the tile spawner of the board
+     */
+	@Override
+	public TileSpawner getSpawner() {
+		return spawner;
+	}
+
+    /**
+     * @brief replaces the spawner choosing the value and the cell of new tiles
+     * @param spawner - a tile spawner
+     */
+	@Override
+	public void setSpawner(TileSpawner spawner) {
+		this.spawner = spawner;
+	}
+
+    /**
+     * @brief attaches a description that every following move records the travel of its tiles into
+     * @param description - the description to overwrite on every move, or null to stop describing moves
+     */
+	@Override
+	public void setMoveDescription(MoveDescription description) {
+		this.description = description;
+	}
+
+    /**
+     * @brief gets the number of longs a packed state of the board takes at its current size
+     * @return 2 for boards up to 5x5, up to 6 for an 8x8 board
+     */
+	@Override
+	public int getPackedStateLength() {
+		return 1 + (cells.length - HEAD_CELLS + WORD_CELLS - 1) / WORD_CELLS;
+	}
+
+    /**
+     * @brief writes the score and 5-bit exponents into longs
+     * @details the score fills the low half of the first long, followed by 6 exponents; every other long holds 12
+     * @param words - the array to write into
+     * @param offset - the index of the first long to write
+     */
+	@Override
+	public void packState(long[] words, int offset) {
+		for (int i = 1; i < getPackedStateLength(); i++) {
+			words[offset + i] = 0;
+		}
+		words[offset] = score & 0xFFFFFFFFL;
+		for (int i = 0; i < cells.length; i++) {
+			words[offset + stateWord(i)] |= (long) cells[i] << stateShift(i);
+		}
+	}
+
+    /**
+     * @brief restores the score and the exponents written by packState
+     * @param words - the array holding the state
+     * @param offset - the index of the first long of the state
+     */
+	@Override
+	public void unpackState(long[] words, int offset) {
+		score = (int) words[offset];
+		for (int i = 0; i < cells.length; i++) {
+			cells[i] = (byte) ((words[offset + stateWord(i)] >>> stateShift(i)) & 0x1F);
+		}
+		restoreIndicators();
+	}
+
+    /**
+     * @brief publishes an immutable snapshot of the tiles, the score and the status for other threads
+     */
+	@Override
+	public void publishSnapshot() {
+		for (int i = 0; i < BoardSnapshot.WORDS; i++) {
+			snapshotWords[i] = 0;
+		}
+		for (int i = 0; i < cells.length; i++) {
+			BoardSnapshot.pack(snapshotWords, i, cells[i]);
+		}
+		snapshot = new BoardSnapshot(size, score, status, snapshotWords);
+	}
+
+    /**
+     * @brief gets the last snapshot published
+     * @return the snapshot
+     */
+	@Override
+	public BoardSnapshot getSnapshot() {
+		return snapshot;
+	}
+
+    /**
+     * @brief overwrites the tiles and the score, leaving the game in progress
+     * @param exponents - the exponent of every cell, indexed by x * size + y
+     * @param score - the score
+     */
+	void restore(byte[] exponents, int score) {
+		System.arraycopy(exponents, 0, cells, 0, cells.length);
+		this.score = score;
+		restoreIndicators();
+	}
+
+    /**
+     * @brief recomputes the empty-cell mask, the maximum tile and the valid-move indicator after the cells were overwritten
+     */
+	private void restoreIndicators() {
+		emptyMask = cells.length == 64 ? -1L : (1L << cells.length) - 1;
+		for (int i = 0; i < cells.length; i++) {
+			updateEmptyMask(i, cells[i]);
+		}
+		maxExponent = findMaxExponent();
+		equalTilesKnown = false;
+		status = true;
 	}
 
     /**
      * @brief checks whether performing a given potential move would change the state of the board
+     * @details walks every line in the direction of the move without modifying the board or the score
      * @param move - a move to be checked
      * @return true if performing a given move would have changed the state of the board; false otherwise 
      */
+	@Override
 	public boolean isBoardChangedOnMove(MoveT move) {
-		int[][] copyBoard = clone2dArray(board);
-		if (move == MoveT.left) {
-			compressLeft(copyBoard);
-			merge(copyBoard);
-			compressLeft(copyBoard);
-		} else if (move == MoveT.right) {
-			reverse(copyBoard);
-			compressLeft(copyBoard);
-			merge(copyBoard);
-			compressLeft(copyBoard);
-			reverse(copyBoard);
-		} else if (move == MoveT.up) {
-			transpose(copyBoard);
-			compressLeft(copyBoard);
-			merge(copyBoard);
-			compressLeft(copyBoard);
-			transpose(copyBoard);
-		} else {
-			transpose(copyBoard);
-			reverse(copyBoard);
-			compressLeft(copyBoard);
-			merge(copyBoard);
-			compressLeft(copyBoard);
-			reverse(copyBoard);
-			transpose(copyBoard);
+		int step = lineStep(move, size);
+		for (int line = 0; line < size; line++) {
+			int index = lineStart(move, line, size);
+			boolean seenEmpty = false;
+			int previous = 0;
+			for (int k = 0; k < size; k++, index += step) {
+				int exponent = cells[index];
+				if (exponent == 0) {
+					seenEmpty = true;
+				} else {
+					if (seenEmpty || exponent == previous) {
+						return true;
+					}
+					previous = exponent;
+				}
+			}
 		}
-		return !Arrays.deepEquals(copyBoard, board);
+		return false;
 	}
 
     /**
      * @brief performs a given move and updates the state of the board accordingly
      * @param move - a move to be performed
      */
+	@Override
 	public void move(MoveT move) {
-		if (move == MoveT.left) {
-			compressLeft(board);
-			merge(board);
-			compressLeft(board);
-		} else if (move == MoveT.right) {
-			reverse(board);
-			compressLeft(board);
-			merge(board);
-			compressLeft(board);
-			reverse(board);
-		} else if (move == MoveT.up) {
-			transpose(board);
-			compressLeft(board);
-			merge(board);
-			compressLeft(board);
-			transpose(board);
-		} else {
-			transpose(board);
-			reverse(board);
-			compressLeft(board);
-			merge(board);
-			compressLeft(board);
-			reverse(board);
-			transpose(board);
-		}
+		applyMove(move);
 	}
 
     /**
-     * @brief creates a copy(clone) of a given 2d array
-     * @param arr - an array to be cloned
-     * @return a copy(clone) of a given array
+     * @brief performs a given move in a single pass and describes its outcome
+     * @details a move that changes nothing leaves the board and the score untouched
+     * @param move - a move to be performed
+     * @return the outcome of the move; owned by the board and overwritten by its next move
      */
-	private int[][] clone2dArray(int[][] arr) {
-		int size = 4;
-		int[][] newArr = new int[size][size];
-		for (int i = 0; i < arr.length; i++)
-			for (int j = 0; j < arr[i].length; j++)
-				newArr[i][j] = arr[i][j];
-		return newArr;
+	@Override
+	public MoveResult applyMove(MoveT move) {
+		int step = lineStep(move, size);
+		moveChanged = false;
+		moveScore = 0;
+		moveMerges = 0;
+		moveMaxMerged = 0;
+		if (description != null)
+			description.start(size);
+		// only a move from at most one empty cell can leave the single cell the next spawn fills,
+		// so only such a move finds out whether it leaves equal tiles next to each other
+		equalTilesKnown = Long.bitCount(emptyMask) <= 1;
+		equalTiles = false;
+		int across = lineStart(move, 1, size) - lineStart(move, 0, size);
+		for (int line = 0; line < size; line++) {
+			int start = lineStart(move, line, size);
+			int end = slideLine(start, step);
+			if (equalTilesKnown && !equalTiles)
+				equalTiles = hasEqualTilesInLine(start, end, step, line == 0 ? 0 : across);
+		}
+		score += moveScore;
+		if (moveMaxMerged > maxExponent)
+			maxExponent = moveMaxMerged;
+		result.set(moveChanged, moveScore, moveMerges, toTile(moveMaxMerged), Long.bitCount(emptyMask));
+		return result;
 	}
 
     /**
-     * @brief reverses the values in a given 2d array
-     * @param arr - an array to be modified
+     * @brief slides and merges one line of the board in place in the direction of a move
+     * @details compresses the tiles towards the edge the move points at and merges adjacent tiles
+     * with the same values into one tile of twice the value, starting from the tile closest to that edge.
+     * Accumulates the outcome of the move.
+     * @param start - the index of the cell of the line at the edge the move points at
+     * @param step - the index difference between two consecutive cells of the line, away from that edge
+     * @return the index after the last tile left in the line
      */
-	private void reverse(int[][] arr) {
-		int size = arr.length;
-		int[][] reverse = new int[size][size];
-		for (int i = 0; i < size; i++) {
-			for (int j = 0; j < size; j++) {
-				reverse[i][j] = arr[i][size - 1 - j];
+	private int slideLine(int start, int step) {
+		int target = start;
+		int pending = 0;
+		int pendingSource = 0;
+		for (int k = 0, index = start; k < size; k++, index += step) {
+			int exponent = cells[index];
+			if (exponent == 0) {
+				continue;
 			}
-		}
-
-		for (int i = 0; i < size; i++) {
-			for (int j = 0; j < size; j++) {
-				arr[i][j] = reverse[i][j];
+			if (exponent == pending) {
+				setLineCell(target, exponent + 1);
+				if (description != null) {
+					description.record(pendingSource, target);
+					description.record(index, target);
+				}
+				target += step;
+				moveScore += 1 << (exponent + 1);
+				moveMerges++;
+				moveMaxMerged = Math.max(moveMaxMerged, exponent + 1);
+				pending = 0;
+			} else {
+				if (pending != 0) {
+					setLineCell(target, pending);
+					if (description != null)
+						description.record(pendingSource, target);
+					target += step;
+				}
+				pending = exponent;
+				pendingSource = index;
 			}
 		}
+		if (pending != 0) {
+			setLineCell(target, pending);
+			if (description != null)
+				description.record(pendingSource, target);
+			target += step;
+		}
+		int tilesEnd = target;
+		for (int end = start + size * step; target != end; target += step) {
+			setLineCell(target, 0);
+		}
+		return tilesEnd;
 	}
 
     /**
-     * @brief transposes the values in a given 2d array
-     * @param arr - an array to be modified
+     * @brief sets a cell of the line being moved
+     * @details only writes cells whose value changes, so a move that changes nothing leaves the board untouched
      */
-	private void transpose(int[][] arr) {
-		int size = arr.length;
-		int[][] transpose = new int[size][size];
-		for (int i = 0; i < size; i++) {
-			for (int j = 0; j < size; j++) {
-				transpose[i][j] = arr[j][i];
-			}
+	private void setLineCell(int index, int exponent) {
+		if (cells[index] != exponent) {
+			cells[index] = (byte) exponent;
+			updateEmptyMask(index, exponent);
+			moveChanged = true;
 		}
+	}
 
-		for (int i = 0; i < size; i++) {
-			for (int j = 0; j < size; j++) {
-				arr[i][j] = transpose[i][j];
-			}
+    /**
+     * @brief scans the board for the exponent of its highest tile
+     */
+	private int findMaxExponent() {
+		int max = 0;
+		for (byte exponent : cells) {
+			max = Math.max(max, exponent);
 		}
+		return max;
 	}
 
     /**
-     * @brief compresses the tiles in a given array to the left
-     * @param arr - an array to be modified
+     * @brief gets the long of a packed state holding the exponent of a cell
      */
-	private void compressLeft(int[][] arr) {
-		int size = arr.length;
-		int position;
-		for (int i = 0; i < size; i++) {
-			position = 0;
-			for (int j = 0; j < size; j++) {
-				if (arr[i][j] != 0) {
-					arr[i][position] = arr[i][j];
-					if (j != position) {
-						arr[i][j] = 0;
-					}
-					position++;
-				}
-			}
-		}
+	private static int stateWord(int index) {
+		return index < HEAD_CELLS ? 0 : 1 + (index - HEAD_CELLS) / WORD_CELLS;
 	}
 
     /**
-     * @brief merges adjacent tiles with the same values in a given array
-     * @details merges adjacent tiles with the same values into 
-     * one tile of twice the value for each row starting from the leftmost tile.
-     * The tile merged becomes an empty tile. Updates the score accordingly.
-     * @param arr - an array to be modified
+     * @brief gets the position of the exponent of a cell within its long of a packed state
      */
-	private void merge(int[][] arr) {
-		int size = arr.length;
-		for (int i = 0; i < size; i++) {
-			for (int j = 0; j < size - 1; j++) {
-				if (arr[i][j] == arr[i][j + 1] && arr[i][j] != 0) {
-					arr[i][j] *= 2;
-					score += arr[i][j]; // Update score with the value of the merged tile
-					//System.out.println(String.valueOf(score));
-					arr[i][j + 1] = 0;
-				}
-			}
-		}
+	private static int stateShift(int index) {
+		return index < HEAD_CELLS ? 32 + 5 * index : 5 * ((index - HEAD_CELLS) % WORD_CELLS);
+	}
+
+    /**
+     * @brief keeps the empty-cell mask up to date after a cell was set
+     */
+	private void updateEmptyMask(int index, int exponent) {
+		long bit = 1L << index;
+		if (exponent == 0)
+			emptyMask |= bit;
+		else
+			emptyMask &= ~bit;
+	}
+
+    /**
+     * @brief converts an exponent to its tile value
+     */
+	private static int toTile(int exponent) {
+		return exponent == 0 ? 0 : 1 << exponent;
+	}
+
+    /**
+     * @brief gets the index of the first cell of a line, at the edge a move points at
+     * @param line - the row (left, right) or column (up, down)
+     */
+	static int lineStart(MoveT move, int line, int size) {
+		return switch (move) {
+			case left -> line * size;
+			case right -> line * size + size - 1;
+			case up -> line;
+			case down -> (size - 1) * size + line;
+		};
+	}
+
+    /**
+     * @brief gets the index difference between two consecutive cells of a line, away from the edge a move points at
+     */
+	static int lineStep(MoveT move, int size) {
+		return switch (move) {
+			case left -> 1;
+			case right -> -1;
+			case up -> size;
+			case down -> -size;
+		};
 	}
 }
@@ -7,32 +7,43 @@ package src;
 
 /**
  * @brief An abstract object that links the model and view modules.
- * @details Handles events triggered by the UI
+ * @details Handles events triggered by the UI, on the game logic thread of the UserInterface or the
+ * session lane of the GameServer. A controller is not thread safe; every game needs its own
+ * controller and model, and its events must be handled one at a time.
  */
 public class Controller implements ViewListener {
 	
 	// State Variables
-	private BoardT model;
-	private UserInterface view;
+	private GameBoard model;
+	private GameView view;
+    private final MoveDescription lastMove = new MoveDescription();
+    private MoveHistory history = new MoveHistory(MoveHistory.UNLIMITED);
+    private ReplayWriter recorder; // null unless games are recorded
+    private SpectatorBroadcaster spectators; // null unless the game is streamed
+    private GameEventBus events; // null unless the events of the game are published
+    private int spawnedCell, spawnedTile; // the tile spawned last by populateRandomCell
+    private long rootSeed = System.nanoTime();
+    private long gamesStarted = 0;
     private static Controller controller = null;
 
     /**
      * @brief constructor
-     * @param model - model module (BoardT)
-     * @param view - view module (UseInterface)
+     * @param model - model module (BoardT or BitBoardT), owned by this controller
+     * @param view - view module (UserInterface, a game session or a headless stub)
      */
-    private Controller(BoardT model, UserInterface view){
+    public Controller(GameBoard model, GameView view){
         this.model = model;
         this.view = view;
+        describeMoves();
     }
 
     /**
-     * @brief public static method for obtaining a single instance
-     * @param model - model module (BoardT)
+     * @brief public static method for obtaining the instance driving the Swing client
+     * @param model - model module (BoardT or BitBoardT)
      * @param view - view module (UseInterface)
      * @return the single GameController object
      */
-    public static Controller getInstance(BoardT model, UserInterface view) 
+    public static Controller getInstance(GameBoard model, GameView view) 
     { 
         if (controller == null) 
             controller = new Controller(model, view); 
@@ -41,9 +52,75 @@ public class Controller implements ViewListener {
 
     /**
      * @brief initializes the game
+     * @details resets the selected model module in place, with the board size selected in the view,
+     * so the same board engine is kept, and reseeds its tile spawner with the next seed derived from the root seed
      */
     public void initializeGame(){
-        model = new BoardT();
+        int size = view.getSelectedBoardSize();
+        if (size == model.getSize())
+            model.reset();
+        else
+            model.reset(size);
+        model.getSpawner().reseed(TileSpawner.seedFor(rootSeed, gamesStarted++));
+    }
+
+    /**
+     * @brief sets the root seed the seeds of the following games are derived from
+     * @param seed - the root seed
+     */
+    public void setSeed(long seed) {
+        rootSeed = seed;
+        gamesStarted = 0;
+    }
+
+    /**
+     * @brief sets how many moves can be undone in a row, from the next game on
+     * @param depth - the number of moves, or MoveHistory.UNLIMITED
+     * @throws IllegalArgumentException - if the depth is negative
+     */
+    public void setUndoDepth(int depth) {
+        history = new MoveHistory(depth);
+    }
+
+    /**
+     * @brief records the following games into a replay log, starting with the next one
+     * @param recorder - the log to append the games to, or null to stop recording
+     */
+    public void setReplayWriter(ReplayWriter recorder) {
+        if (this.recorder != null)
+            this.recorder.endGame();
+        this.recorder = recorder;
+    }
+
+    /**
+     * @brief streams the board to spectators after every change, starting with the next one
+     * @param spectators - the broadcaster to publish the board to, or null to stop streaming
+     */
+    public void setSpectators(SpectatorBroadcaster spectators) {
+        this.spectators = spectators;
+    }
+
+    /**
+     * @brief publishes the events of the following moves and games on a bus
+     * @param events - the bus, or null to stop publishing
+     */
+    public void setEventBus(GameEventBus events) {
+        this.events = events;
+        describeMoves();
+    }
+
+    /**
+     * @brief replaces the spawner choosing the value and the cell of new tiles
+     * @details a game being recorded goes on in the log as a new game, started from the current state,
+     * with the tiles of the new spawner in its header
+     * @param spawner - a tile spawner
+     */
+    public void setSpawner(TileSpawner spawner) {
+        model.setSpawner(spawner);
+        if (recorder != null && recorder.isRecordingGame()) {
+            recorder.startGame(model.getSize(), spawner.getSeed(), spawner.getTiles());
+            recorder.recordState(model.getBoard(), model.getScore());
+        }
     }
     
     /**
@@ -62,14 +139,17 @@ public class Controller implements ViewListener {
 
     /**
      * @brief updates the status of the game
+     * @details every check reads a value the model keeps up to date, so no grid scan is needed
      */
     public void updateStatus() {
+		long start = Metrics.begin();
 		if (model.isWinner()) {
 			model.setStatus(false);
 		}
 		else if (model.isBoardFull() && !model.isAnyValidMove()) {
 			model.setStatus(false);
 		}
+		Metrics.end(Metrics.Section.UPDATE_STATUS, start);
 	}
     
     /**
@@ -83,35 +163,83 @@ public class Controller implements ViewListener {
      * @brief updates the gameUI of the view module
      */
     public void updateGameUI() {
-    	view.updateGameUI();
+    	view.updateGameUI(model.getSize());
     }
     
     /**
      * @brief generates and populates a random tile at randomly selected unoccupied board cell
      */
     public void populateRandomCell() {
-    	int[] coords = model.generateRandomFreeCellCoord();
+    	long start = Metrics.begin();
+    	int cell = model.generateRandomFreeCell();
     	int tile  = model.generateRandomTile();
-    	model.setCell(coords[0], coords[1], tile);
+    	model.setCell(cell / model.getSize(), cell % model.getSize(), tile);
+    	spawnedCell = cell;
+    	spawnedTile = tile;
+    	if (events != null) events.tileSpawned(cell, tile, model.getScore());
+    	Metrics.end(Metrics.Section.POPULATE_RANDOM_CELL, start);
     }
     
+    /**
+     * @brief has the model record the travel of tiles only when the view animates it or merges are published
+     */
+    private void describeMoves() {
+    	model.setMoveDescription(view.animatesMoves() || events != null ? lastMove : null);
+    }
+
+    /**
+     * @brief publishes a move that changed the board and the merges it made
+     * @details two tiles travelling to the same cell merged there
+     * @param m - the move
+     */
+    private void publishMove(MoveT m) {
+    	int score = model.getScore();
+    	events.moveApplied(m, score);
+    	int size = model.getSize();
+    	int[][] board = model.getBoard();
+    	long destinations = 0;
+    	for (int cell = 0; cell < size * size; cell++) {
+    		int destination = lastMove.getDestination(cell);
+    		if (destination < 0)
+    			continue;
+    		if ((destinations & 1L << destination) != 0)
+    			events.merge(destination, board[destination / size][destination % size], score);
+    		destinations |= 1L << destination;
+    	}
+    }
+
     /**
      * @brief updates the model and view when the user attempts to make a move (core routine of the controller)
-     * @details triggered every time the user interacts with the UI and intends to make a move in game view
+     * @details triggered every time the user interacts with the UI and intends to make a move in game view;
+     * timed by Metrics when it changes the board
      * @param m - a move the user intends to make
      */
 	@Override
 	public void onMoveOccured(MoveT m) {
 		if (!model.getStatus()) return;
-		if (!model.isBoardChangedOnMove(m)) return;
-		model.move(m);
+		long start = Metrics.begin();
+		boolean changed = model.applyMove(m).isChanged();
+		Metrics.end(Metrics.Section.APPLY_MOVE, start);
+		if (!changed) {
+			Metrics.count(Metrics.Counter.UNCHANGED_MOVES);
+			return;
+		}
+		Metrics.count(Metrics.Counter.MOVES);
+		if (events != null) publishMove(m);
 		populateRandomCell();
+		if (recorder != null) recorder.recordMove(m, spawnedCell, spawnedTile);
 		updateStatus();
-		updateGrid();
+		if (events != null && !model.getStatus()) events.gameOver(model.isWinner(), model.getMaxTile(), model.getScore());
+		model.publishSnapshot();
+		history.record(model);
+		if (spectators != null) spectators.publish(model);
+		if (view.animatesMoves()) view.updateGrid(model.getBoard(), model.getScore(), lastMove);
+		else view.updateGrid(model.getBoard(), model.getScore());
 		if (!model.getStatus() && view.isDisplaying()) {
 			if (model.isWinner()) view.displayYouWonMessage();
 			else view.displayYouLostMessage();
 		}
+		Metrics.end(Metrics.Section.MOVE_OCCURED, start);
 	}
 	
     /**
@@ -121,12 +249,52 @@ public class Controller implements ViewListener {
 	@Override
 	public void onPlayPressed() {
 		initializeGame();
+		if (events != null) events.gameStarted(model.getSize());
 		updateGameUI();
     	displayGame();
     	populateRandomCell();
     	populateRandomCell();
+    	model.publishSnapshot();
+    	history.start(model);
+    	if (recorder != null) {
+    		recorder.startGame(model.getSize(), model.getSpawner().getSeed(), model.getSpawner().getTiles());
+    		recorder.recordState(model.getBoard(), model.getScore());
+    	}
+    	if (spectators != null) spectators.publish(model);
     	updateGrid();
 	}
+
+    /**
+     * @brief restores the board and the score before the last move, spawned tile included
+     * @details triggered every time the user asks to undo a move in the game view; also resumes a finished game
+     */
+	@Override
+	public void onUndoPressed() {
+		if (history.undo(model)) {
+			if (recorder != null) recorder.recordState(model.getBoard(), model.getScore());
+			updateStatus();
+			model.publishSnapshot();
+			if (events != null) events.boardRestored(model.getScore());
+			if (spectators != null) spectators.publish(model);
+			updateGrid();
+		}
+	}
+
+    /**
+     * @brief restores the board and the score after the last undone move
+     * @details triggered every time the user asks to redo a move in the game view
+     */
+	@Override
+	public void onRedoPressed() {
+		if (history.redo(model)) {
+			if (recorder != null) recorder.recordState(model.getBoard(), model.getScore());
+			updateStatus();
+			model.publishSnapshot();
+			if (events != null) events.boardRestored(model.getScore());
+			if (spectators != null) spectators.publish(model);
+			updateGrid();
+		}
+	}
 	
     /**
      * @brief switches the game view to the menu
@@ -134,6 +302,10 @@ public class Controller implements ViewListener {
      */
 	@Override
 	public void onBackToMenuPressed() {
+		if (recorder != null) {
+			recorder.endGame();
+			recorder.flush();
+		}
 		displayMenu();
 	}
 }
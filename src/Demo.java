@@ -5,12 +5,49 @@
 
 package src;
 
+// Import java libraries
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
+
 public class Demo {
 
-   public static void main(String[] args) {
-	      BoardT boardT = new BoardT();
+   /**
+    * @brief starts the game
+    * @details run with -Dgame.replay=<file> to record every game into a replay log, and with
+    * -Dgame.spectators=<port> to stream the game to spectators on a local port; with
+    * -Dgame.metrics=true the events of the game are also published to the counters of Metrics
+    * @param args - pass "bitboard" to play on the BitBoardT engine instead of BoardT
+    * @throws IOException - if the replay log cannot be created or the spectator port cannot be bound
+    */
+   public static void main(String[] args) throws IOException {
+	      GameBoard boardT = args.length > 0 && args[0].equals("bitboard") ? new BitBoardT() : new BoardT();
 	      UserInterface UI = UserInterface.getInstance();
+	      if (boardT instanceof BitBoardT)
+	    	  UI.setBoardSizeRange(4, 4);
 	      Controller game = Controller.getInstance(boardT, UI);
+	      String replay = System.getProperty("game.replay");
+	      if (replay != null) {
+	    	  ReplayWriter recorder = new ReplayWriter(Paths.get(replay));
+	    	  game.setReplayWriter(recorder);
+	    	  Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+	    		  try {
+	    			  recorder.close();
+	    		  } catch (IOException e) {
+	    			  e.printStackTrace();
+	    		  }
+	    	  }));
+	      }
+	      String spectators = System.getProperty("game.spectators");
+	      if (spectators != null)
+	    	  game.setSpectators(new SpectatorBroadcaster(
+	    			  new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(spectators))));
+	      if (Metrics.ENABLED) {
+	    	  GameEventBus events = new GameEventBus();
+	    	  Metrics.observe(events);
+	    	  game.setEventBus(events);
+	      }
 	      UI.setViewListener(game);
 	      game.displayMenu();
 	  }
@@ -0,0 +1,489 @@
+/**
+ * @File: DifferentialFuzzer.java
+ * @Description: checks the board engines against the original move logic on generated boards
+ */
+
+package src;
+
+// Import java libraries
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * @brief Runs every move on generated boards through a ReferenceBoard and the candidate engines
+ * @details Each case is a board generated from TileSpawner.seedFor(seed, index): uniform random
+ * tiles, small tiles with many equal neighbours, runs of equal tiles such as 2 2 2 2 or 4 4 8 8, or
+ * tiles close to the largest exponent an engine supports, with an empty cell share from none (full
+ * boards) to one half. Every move is checked on the board, the score, the changed flag, the empty cells,
+ * the highest tile and the valid move indicator. Workers claim cases in batches from a shared counter
+ * and reuse their boards, so checking allocates nothing. The failing case with the lowest index is
+ * reported whatever the number of threads, after shrinking it by emptying cells and lowering tiles for
+ * as long as the candidate still fails.
+ */
+public class DifferentialFuzzer {
+
+	// Number of cases a worker claims at once
+	private static final long BATCH = 4096;
+	private static final MoveT[] MOVES = MoveT.values();
+
+	/**
+	 * @brief A board engine checked by the fuzzer
+	 */
+	public static final class Candidate {
+
+		private final String name;
+		private final IntFunction<GameBoard> factory;
+		private final int minSize;
+		private final int maxSize;
+		private final int maxExponent;
+
+	    /**
+	     * @brief constructor
+	     * @param name - the name used in reports
+	     * @param factory - creates an empty board of a given size
+	     * @param minSize - the smallest supported board size
+	     * @param maxSize - the largest supported board size
+	     * @param maxExponent - the largest exponent of a generated tile; merging two of them must be supported
+	     */
+		public Candidate(String name, IntFunction<GameBoard> factory, int minSize, int maxSize, int maxExponent) {
+			this.name = name;
+			this.factory = factory;
+			this.minSize = minSize;
+			this.maxSize = maxSize;
+			this.maxExponent = maxExponent;
+		}
+
+	    /**
+	     * @brief gets the name of the engine
+	     * @return the name used in reports
+	     */
+		public String getName() {
+			return name;
+		}
+
+		private boolean supports(int size) {
+			return size >= minSize && size <= maxSize;
+		}
+	}
+
+	/**
+	 * @brief The first case on which a candidate differs from the reference
+	 */
+	public static final class Failure {
+
+		private final long index;
+		private final Candidate candidate;
+		private final MoveT move;
+		private final int size;
+		private final byte[] cells;
+		private final byte[] shrunk;
+		private final String reason;
+		private final String expected;
+		private final String actual;
+
+		private Failure(long index, Candidate candidate, MoveT move, int size, byte[] cells, byte[] shrunk,
+				String reason, String expected, String actual) {
+			this.index = index;
+			this.candidate = candidate;
+			this.move = move;
+			this.size = size;
+			this.cells = cells;
+			this.shrunk = shrunk;
+			this.reason = reason;
+			this.expected = expected;
+			this.actual = actual;
+		}
+
+	    /**
+	     * @brief gets the index of the failing case
+	     * @return the case index, which regenerates the case with the same seed
+	     */
+		public long getIndex() {
+			return index;
+		}
+
+	    /**
+	     * @brief gets the engine that failed
+	     * @return the candidate
+	     */
+		public Candidate getCandidate() {
+			return candidate;
+		}
+
+	    /**
+	     * @brief gets the failing move
+	     * @return the move
+	     */
+		public MoveT getMove() {
+			return move;
+		}
+
+	    /**
+	     * @brief gets the shrunk board as tile values
+	     * @return the smallest failing board found
+	     */
+		public int[][] getShrunkBoard() {
+			return toGrid(shrunk, size);
+		}
+
+	    /**
+	     * @brief describes the failure
+	     * @return the reason, the generated and shrunk boards and the boards after the move
+	     */
+		@Override
+		public String toString() {
+			return String.format("%s differs from the reference on case %d, move %s: %s%n"
+					+ "generated board:%n%sshrunk board:%n%sexpected after the move:%n%sactual after the move:%n%s",
+					candidate.getName(), index, move, reason, format(toGrid(cells, size)), format(toGrid(shrunk, size)),
+					expected, actual);
+		}
+	}
+
+	// State Variables
+	private final Candidate[] candidates;
+	private final int threads;
+	private final long seed;
+	private final int minSize;
+	private final int maxSize;
+	private long casesChecked;
+
+    /**
+     * @brief constructor
+     * @param candidates - the engines to check
+     * @param threads - the number of worker threads
+     * @param seed - the root seed the board of each case is derived from
+     * @throws IllegalArgumentException - if no candidate or no thread is given
+     */
+	public DifferentialFuzzer(List<Candidate> candidates, int threads, long seed) {
+		if (candidates.isEmpty())
+			throw new IllegalArgumentException("At least one candidate engine is required.");
+		if (threads < 1)
+			throw new IllegalArgumentException("At least one worker thread is required.");
+		this.candidates = candidates.toArray(new Candidate[0]);
+		this.threads = threads;
+		this.seed = seed;
+		int min = Integer.MAX_VALUE, max = 0;
+		for (Candidate candidate : candidates) {
+			min = Math.min(min, candidate.minSize);
+			max = Math.max(max, candidate.maxSize);
+		}
+		minSize = min;
+		maxSize = max;
+	}
+
+    /**
+     * @brief creates the candidate for BoardT, on every size it supports
+     * @return the candidate
+     */
+	public static Candidate boardT() {
+		return new Candidate("BoardT", BoardT::new, BoardT.MIN_SIZE, BoardT.MAX_SIZE, 20);
+	}
+
+    /**
+     * @brief creates the candidate for BitBoardT, whose tiles stop at 32768
+     * @return the candidate
+     */
+	public static Candidate bitBoardT() {
+		return new Candidate("BitBoardT", size -> new BitBoardT(), 4, 4, 14);
+	}
+
+    /**
+     * @brief checks a given number of cases
+     * @param cases - the number of cases
+     * @return the failing case with the lowest index, shrunk; null if every case passed
+     */
+	public Failure run(long cases) {
+		AtomicLong next = new AtomicLong();
+		AtomicLong firstFailure = new AtomicLong(Long.MAX_VALUE);
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			List<ForkJoinTask<Long>> workers = new ArrayList<>();
+			for (int i = 0; i < threads; i++) {
+				workers.add(pool.submit(() -> new Worker().checkCases(next, cases, firstFailure)));
+			}
+			casesChecked = 0;
+			for (ForkJoinTask<Long> worker : workers) {
+				casesChecked += worker.join();
+			}
+		} finally {
+			pool.shutdown();
+		}
+		long index = firstFailure.get();
+		return index == Long.MAX_VALUE ? null : new Worker().describe(index);
+	}
+
+    /**
+     * @brief gets the number of cases checked by the last run
+     * @return the number of cases, which stops short of the requested number after a failure
+     */
+	public long getCasesChecked() {
+		return casesChecked;
+	}
+
+	/**
+	 * @brief The boards and the generator state of one thread
+	 */
+	private final class Worker {
+
+		private final byte[] cells = new byte[BoardT.MAX_SIZE * BoardT.MAX_SIZE];
+		private final GameBoard[][] boards = new GameBoard[candidates.length][maxSize + 1];
+		private final ReferenceBoard[] references = new ReferenceBoard[maxSize + 1];
+		private long state;
+
+	    /**
+	     * @brief claims and checks batches of cases until all cases are checked or a lower case failed
+	     * @return the number of cases this worker checked
+	     */
+		long checkCases(AtomicLong next, long cases, AtomicLong firstFailure) {
+			long checked = 0;
+			long first;
+			while ((first = next.getAndAdd(BATCH)) < Math.min(cases, firstFailure.get())) {
+				long last = Math.min(first + BATCH, cases);
+				for (long index = first; index < last; index++) {
+					checked++;
+					if (!checkCase(index)) {
+						firstFailure.accumulateAndGet(index, Math::min);
+						break;
+					}
+				}
+			}
+			return checked;
+		}
+
+	    /**
+	     * @brief checks every move of a case on every candidate supporting its size
+	     * @return true if every candidate matched the reference
+	     */
+		boolean checkCase(long index) {
+			int size = generate(index);
+			ReferenceBoard reference = reference(size);
+			for (MoveT move : MOVES) {
+				reference.load(cells);
+				reference.move(move);
+				boolean changed = reference.differsFrom(cells);
+				for (int c = 0; c < candidates.length; c++) {
+					if (candidates[c].supports(size) && compare(board(c, size), size, cells, move, reference, changed) != null)
+						return false;
+				}
+			}
+			return true;
+		}
+
+	    /**
+	     * @brief regenerates a failing case, shrinks it and describes the difference
+	     * @return the failure
+	     */
+		Failure describe(long index) {
+			int size = generate(index);
+			byte[] generated = Arrays.copyOf(cells, size * size);
+			for (int c = 0; c < candidates.length; c++) {
+				if (!candidates[c].supports(size))
+					continue;
+				for (MoveT move : MOVES) {
+					if (fails(c, size, generated, move) == null)
+						continue;
+					byte[] shrunk = shrink(c, size, generated, move);
+					String reason = fails(c, size, shrunk, move);
+					GameBoard board = board(c, size);
+					return new Failure(index, candidates[c], move, size, generated, shrunk, reason,
+							format(reference(size).getBoard()) + "score " + reference(size).getScore() + "\n",
+							format(board.getBoard()) + "score " + board.getScore() + "\n");
+				}
+			}
+			throw new IllegalStateException("Case " + index + " failed once but passes now.");
+		}
+
+	    /**
+	     * @brief empties cells and lowers tiles of a failing board for as long as it keeps failing
+	     * @return the shrunk board
+	     */
+		private byte[] shrink(int c, int size, byte[] failing, MoveT move) {
+			byte[] board = failing.clone();
+			boolean progress = true;
+			while (progress) {
+				progress = false;
+				for (int i = 0; i < board.length; i++) {
+					byte old = board[i];
+					for (int exponent = 0; exponent < old; exponent++) {
+						board[i] = (byte) exponent;
+						if (fails(c, size, board, move) != null) {
+							progress = true;
+							break;
+						}
+						board[i] = old;
+					}
+				}
+			}
+			return board;
+		}
+
+	    /**
+	     * @brief checks one move of a board on one candidate, leaving both boards moved
+	     * @return the difference, or null if the candidate matched the reference
+	     */
+		private String fails(int c, int size, byte[] board, MoveT move) {
+			ReferenceBoard reference = reference(size);
+			reference.load(board);
+			reference.move(move);
+			return compare(board(c, size), size, board, move, reference, reference.differsFrom(board));
+		}
+
+	    /**
+	     * @brief generates the board of a case into the cells of this worker
+	     * @return the size of the board
+	     */
+		private int generate(long index) {
+			state = TileSpawner.seedFor(seed, index);
+			int size = minSize <= 4 && maxSize >= 4 && nextInt(2) == 0 ? 4 : minSize + nextInt(maxSize - minSize + 1);
+			int maxExponent = Integer.MAX_VALUE;
+			for (Candidate candidate : candidates) {
+				if (candidate.supports(size))
+					maxExponent = Math.min(maxExponent, candidate.maxExponent);
+			}
+			int kind = nextInt(4);
+			int emptyEighths = nextInt(5);
+			int run = 0, value = 0;
+			for (int i = 0; i < size * size; i++) {
+				if (nextInt(8) < emptyEighths) {
+					cells[i] = 0;
+					continue;
+				}
+				if (kind == 0) {
+					// uniform random tiles
+					value = 1 + nextInt(maxExponent);
+				} else if (kind == 1) {
+					// small tiles with many equal neighbours
+					value = 1 + nextInt(3);
+				} else if (kind == 2) {
+					// runs of equal tiles
+					if (run == 0) {
+						value = 1 + nextInt(Math.min(4, maxExponent));
+						run = 1 + nextInt(size);
+					}
+					run--;
+				} else {
+					// tiles close to the largest supported one
+					value = maxExponent - nextInt(Math.min(4, maxExponent));
+				}
+				cells[i] = (byte) value;
+			}
+			return size;
+		}
+
+	    /**
+	     * @brief draws the next number of the case generator (splitmix64)
+	     */
+		private int nextInt(int bound) {
+			state = TileSpawner.seedFor(state, 0);
+			return (int) (((state >>> 32) * bound) >>> 32);
+		}
+
+		private GameBoard board(int c, int size) {
+			if (boards[c][size] == null)
+				boards[c][size] = candidates[c].factory.apply(size);
+			return boards[c][size];
+		}
+
+		private ReferenceBoard reference(int size) {
+			if (references[size] == null)
+				references[size] = new ReferenceBoard(size);
+			return references[size];
+		}
+	}
+
+    /**
+     * @brief loads a board into a candidate, makes a move and compares it with the moved reference
+     * @param board - the board of the candidate
+     * @param size - the size of the board
+     * @param cells - the exponent of every cell before the move
+     * @param move - the move
+     * @param reference - the reference board after the same move
+     * @param changed - whether the move changed the reference board
+     * @return the difference, or null if the candidate matched the reference
+     */
+	private static String compare(GameBoard board, int size, byte[] cells, MoveT move, ReferenceBoard reference,
+			boolean changed) {
+		board.reset();
+		for (int i = 0; i < size * size; i++) {
+			if (cells[i] != 0)
+				board.setCell(i / size, i % size, 1 << cells[i]);
+		}
+		boolean predicted = board.isBoardChangedOnMove(move);
+		MoveResult result = board.applyMove(move);
+		if (!Arrays.deepEquals(board.getBoard(), reference.getBoard()))
+			return "the boards differ";
+		if (board.getScore() != reference.getScore())
+			return "score " + board.getScore() + " instead of " + reference.getScore();
+		if (result.getScoreGained() != reference.getScore())
+			return "score gained " + result.getScoreGained() + " instead of " + reference.getScore();
+		if (result.isChanged() != changed)
+			return "the move result reports changed = " + result.isChanged();
+		if (predicted != changed)
+			return "isBoardChangedOnMove returned " + predicted;
+		if (result.getEmptyCells() != reference.getEmptyCellCount() || board.getEmptyCellCount() != reference.getEmptyCellCount())
+			return board.getEmptyCellCount() + " empty cells instead of " + reference.getEmptyCellCount();
+		if (board.getMaxTile() != reference.getMaxTile())
+			return "highest tile " + board.getMaxTile() + " instead of " + reference.getMaxTile();
+		if (board.isAnyValidMove() != reference.isAnyValidMove())
+			return "isAnyValidMove returned " + board.isAnyValidMove();
+		return null;
+	}
+
+    /**
+     * @brief converts cell exponents to tile values
+     */
+	private static int[][] toGrid(byte[] cells, int size) {
+		int[][] grid = new int[size][size];
+		for (int i = 0; i < size * size; i++) {
+			grid[i / size][i % size] = cells[i] == 0 ? 0 : 1 << cells[i];
+		}
+		return grid;
+	}
+
+    /**
+     * @brief renders a grid with one row per line
+     */
+	private static String format(int[][] grid) {
+		StringBuilder out = new StringBuilder();
+		for (int[] row : grid) {
+			for (int tile : row) {
+				out.append(String.format("%7d", tile));
+			}
+			out.append('\n');
+		}
+		return out.toString();
+	}
+
+    /**
+     * @brief checks cases from the command line and exits with status 1 on the first difference
+     * @param args - number of cases, number of threads (default: all cores), engine ("board", "bitboard"
+     * or "all") and the root seed
+     */
+	public static void main(String[] args) {
+		long cases = args.length > 0 ? Long.parseLong(args[0]) : 1000000;
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		String engine = args.length > 2 ? args[2] : "all";
+		long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+		List<Candidate> candidates = new ArrayList<>();
+		if (!engine.equals("bitboard"))
+			candidates.add(boardT());
+		if (!engine.equals("board"))
+			candidates.add(bitBoardT());
+		DifferentialFuzzer fuzzer = new DifferentialFuzzer(candidates, threads, seed);
+		long start = System.nanoTime();
+		Failure failure = fuzzer.run(cases);
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("cases: %d in %.2f s (%.0f cases/s)%n", fuzzer.getCasesChecked(), seconds,
+				fuzzer.getCasesChecked() / seconds);
+		System.out.println("seed: " + seed);
+		if (failure != null) {
+			System.out.print(failure);
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,212 @@
+/**
+ * @File: EventBusCheck.java
+ * @Description: checks that a GameEventBus hands out the events of a game and never waits for a slow subscriber
+ */
+
+package src;
+
+// Import java libraries
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @brief Plays games through a Controller publishing on a small bus, with a fast and a slow subscriber
+ * @details Random moves, undos and redos are played on a BoardT. The fast subscription is polled
+ * on the playing thread after every command, so it must read every event, in order, ending with
+ * the score of the board. The slow subscription has a thread of its own whose handler blocks on its
+ * first event until every command is played:
+ * - the commands must all be played while it is blocked, as the publisher never waits;
+ * - once released it must skip the events it was lapped by, and count them as missed;
+ * - every event it does read must be the event the fast subscription read with the same sequence.
+ * The first difference is printed with the seed and the check exits with status 1.
+ */
+public class EventBusCheck {
+
+	// Events a subscription may fall behind without missing any, small for the slow one to be lapped
+	private static final int CAPACITY = 256;
+
+	// Longest wait for the slow subscriber, before the check gives up on it
+	private static final long TIMEOUT_SECONDS = 10;
+
+	private static final MoveT[] MOVES = MoveT.values();
+
+	// State Variables
+	private final SplittableRandom rand;
+	private final GameEventBus events = new GameEventBus(CAPACITY);
+	private final List<String> published = new ArrayList<>(); // every event as the fast subscription read it
+	private final AtomicReference<String> slowFailure = new AtomicReference<>();
+	private final AtomicLong slowRead = new AtomicLong();
+	private final CountDownLatch played = new CountDownLatch(1);
+	private long slowestCommand;
+
+    /**
+     * @brief constructor
+     * @param seed - the seed of the games and moves
+     */
+	public EventBusCheck(long seed) {
+		rand = new SplittableRandom(seed);
+	}
+
+    /**
+     * @brief plays commands with both subscriptions and checks what they read
+     * @param commands - the number of moves, undos and redos to play
+     * @throws IllegalStateException - on the first difference
+     * @throws InterruptedException - if the check is interrupted while waiting for the slow subscriber
+     */
+	public void run(int commands) throws InterruptedException {
+		GameEventBus.Subscription fast = events.subscribe();
+		GameEventBus.Subscription slow = events.subscribe();
+		Thread slowThread = slow.start("slow-subscriber", this::readSlowly);
+		try {
+			play(fast, commands);
+			if (slowFailure.get() != null)
+				throw new IllegalStateException(slowFailure.get());
+			if (slowRead.get() != 0)
+				throw new IllegalStateException("The commands were played only after the slow subscriber read "
+						+ slowRead.get() + " events.");
+			played.countDown();
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+			while (slowRead.get() + slow.getMissedCount() < published.size()) {
+				if (slowFailure.get() != null)
+					break;
+				if (System.nanoTime() > deadline)
+					throw new IllegalStateException("The slow subscriber read " + slowRead.get() + " and missed "
+							+ slow.getMissedCount() + " of " + published.size() + " events in " + TIMEOUT_SECONDS + " s.");
+				Thread.sleep(1);
+			}
+		} finally {
+			played.countDown();
+			slowThread.interrupt();
+			slowThread.join();
+		}
+		if (slowFailure.get() != null)
+			throw new IllegalStateException(slowFailure.get());
+		if (slow.getMissedCount() == 0)
+			throw new IllegalStateException("The slow subscriber missed no event of " + published.size()
+					+ ", on a bus of " + CAPACITY + ".");
+		if (slowRead.get() + slow.getMissedCount() != published.size())
+			throw new IllegalStateException("The slow subscriber read " + slowRead.get() + " and missed "
+					+ slow.getMissedCount() + " of " + published.size() + " events.");
+	}
+
+    /**
+     * @brief gets the number of events published
+     * @return the number of events
+     */
+	public int getPublishedCount() {
+		return published.size();
+	}
+
+    /**
+     * @brief gets the number of events the slow subscriber read
+     * @return the number of events
+     */
+	public long getSlowReadCount() {
+		return slowRead.get();
+	}
+
+    /**
+     * @brief gets the longest time a command took to play and publish
+     * @return the time in nanoseconds
+     */
+	public long getSlowestCommand() {
+		return slowestCommand;
+	}
+
+    /**
+     * @brief plays random commands through a controller, reading the fast subscription after each
+     */
+	private void play(GameEventBus.Subscription fast, int commands) {
+		BoardT model = new BoardT(4);
+		Controller controller = new Controller(model, new GameSession(0, 4, 1));
+		controller.setSeed(rand.nextLong());
+		controller.setUndoDepth(8);
+		controller.setEventBus(events);
+		controller.onPlayPressed();
+		for (int i = 0; i < commands; i++) {
+			long start = System.nanoTime();
+			int command = rand.nextInt(40);
+			if (command == 0)
+				controller.onUndoPressed();
+			else if (command == 1)
+				controller.onRedoPressed();
+			else
+				controller.onMoveOccured(MOVES[command & 3]);
+			if (!model.getStatus())
+				controller.onPlayPressed();
+			slowestCommand = Math.max(slowestCommand, System.nanoTime() - start);
+			int before = published.size();
+			fast.poll((event, endOfBatch) -> {
+				if (event.getSequence() != published.size())
+					throw new IllegalStateException("The fast subscriber read event " + event.getSequence()
+							+ " instead of " + published.size() + ".");
+				published.add(describe(event));
+			}, Integer.MAX_VALUE);
+			if (fast.getMissedCount() != 0)
+				throw new IllegalStateException("The fast subscriber missed " + fast.getMissedCount() + " events.");
+			if (published.size() > before && !published.get(published.size() - 1).endsWith(" " + model.getScore()))
+				throw new IllegalStateException("Event " + published.get(published.size() - 1)
+						+ " does not end with the score of the board, " + model.getScore() + ".");
+		}
+	}
+
+    /**
+     * @brief the handler of the slow subscription: blocks on the first event until every command is played
+     */
+	private void readSlowly(GameEvent event, boolean endOfBatch) {
+		try {
+			if (slowFailure.get() == null && !played.await(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+				slowFailure.compareAndSet(null, "The commands were not played in " + TIMEOUT_SECONDS
+						+ " s while the slow subscriber was blocked.");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+		if (slowFailure.get() != null) {
+			// gave up: let a waiting publisher go on, without reading events it may still be adding
+			slowRead.incrementAndGet();
+			return;
+		}
+		long sequence = event.getSequence();
+		String expected = sequence < published.size() ? published.get((int) sequence) : null;
+		if (!describe(event).equals(expected))
+			slowFailure.compareAndSet(null, "The slow subscriber read " + describe(event) + " instead of " + expected + ".");
+		slowRead.incrementAndGet();
+	}
+
+    /**
+     * @brief renders every field of an event, ending with its score
+     */
+	private static String describe(GameEvent event) {
+		return event.getSequence() + " " + event.getType() + " " + event.getMove() + " " + event.getSize() + " "
+				+ event.getCell() + " " + event.getTile() + " " + event.isWon() + " " + event.getScore();
+	}
+
+    /**
+     * @brief plays the commands and checks the subscribers; exits with status 1 on the first difference
+     * @param args - the number of commands (default 20000) and the seed
+     * @throws InterruptedException - if the check is interrupted
+     */
+	public static void main(String[] args) throws InterruptedException {
+		int commands = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+		long seed = args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime();
+		try {
+			EventBusCheck check = new EventBusCheck(seed);
+			long start = System.nanoTime();
+			check.run(commands);
+			System.out.printf("commands: %d, events: %d, read by the slow subscriber: %d, slowest command: %.1f us in %.2f s%n",
+					commands, check.getPublishedCount(), check.getSlowReadCount(), check.getSlowestCommand() / 1e3,
+					(System.nanoTime() - start) / 1e9);
+			System.out.println("seed: " + seed);
+		} catch (IllegalStateException e) {
+			System.out.println("seed: " + seed);
+			System.out.println(e.getMessage());
+			System.exit(1);
+		}
+	}
+}
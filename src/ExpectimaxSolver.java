@@ -0,0 +1,351 @@
+/**
+ * @File: ExpectimaxSolver.java
+ * @Description: a move policy choosing moves with a parallel, time-bounded expectimax search
+ */
+
+package src;
+
+// Import java libraries
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * @brief A MovePolicy searching the game tree with expectimax on packed 4x4 boards
+ * @details Max nodes try every move, chance nodes average over every empty cell receiving each tile
+ * value the TileSpawner of the board can draw, weighted by its probability, the cell being uniformly
+ * chosen like in TileSpawner.nextCell. The search deepens one move at a time until the deadline
+ * passes and returns the best move of the deepest completed iteration. The top-level moves and the
+ * chance branches close to the root are split across a fork/join pool, so more cores complete deeper
+ * iterations within the same budget. An optional TranspositionCache, which may be shared between
+ * solvers, remembers the value of the positions the search reaches through different move orders;
+ * positions are keyed by their canonical board, so the eight symmetric positions share one entry.
+ */
+public class ExpectimaxSolver implements MovePolicy {
+
+	// Search parameters
+	private static final int MAX_DEPTH = 16;
+	private static final int PARALLEL_DEPTH = 3;
+	private static final double MIN_PROBABILITY = 0.0001;
+	private static final MoveT[] MOVES = MoveT.values();
+
+	// Heuristic weights, evaluated once per row and stored in a table
+	private static final double LOST_PENALTY = 200000.0;
+	private static final double MONOTONICITY_POWER = 4.0;
+	private static final double MONOTONICITY_WEIGHT = 47.0;
+	private static final double SUM_POWER = 3.5;
+	private static final double SUM_WEIGHT = 11.0;
+	private static final double MERGES_WEIGHT = 700.0;
+	private static final double EMPTY_WEIGHT = 270.0;
+	private static final float[] ROW_HEURISTIC = new float[65536];
+
+	static {
+		int[] line = new int[4];
+		for (int row = 0; row < 65536; row++) {
+			for (int i = 0; i < 4; i++) {
+				line[i] = (row >> (4 * i)) & 0xF;
+			}
+			double sum = 0;
+			int empty = 0;
+			int merges = 0;
+			int previous = 0;
+			int counter = 0;
+			for (int i = 0; i < 4; i++) {
+				sum += Math.pow(line[i], SUM_POWER);
+				if (line[i] == 0) {
+					empty++;
+				} else {
+					if (previous == line[i]) {
+						counter++;
+					} else if (counter > 0) {
+						merges += 1 + counter;
+						counter = 0;
+					}
+					previous = line[i];
+				}
+			}
+			if (counter > 0)
+				merges += 1 + counter;
+			double monotonicityLeft = 0;
+			double monotonicityRight = 0;
+			for (int i = 1; i < 4; i++) {
+				if (line[i - 1] > line[i])
+					monotonicityLeft += Math.pow(line[i - 1], MONOTONICITY_POWER) - Math.pow(line[i], MONOTONICITY_POWER);
+				else
+					monotonicityRight += Math.pow(line[i], MONOTONICITY_POWER) - Math.pow(line[i - 1], MONOTONICITY_POWER);
+			}
+			ROW_HEURISTIC[row] = (float) (LOST_PENALTY + EMPTY_WEIGHT * empty + MERGES_WEIGHT * merges
+					- MONOTONICITY_WEIGHT * Math.min(monotonicityLeft, monotonicityRight) - SUM_WEIGHT * sum);
+		}
+	}
+
+	// State Variables
+	private final ForkJoinPool pool;
+	private final long budgetNanos;
+	private final TranspositionCache cache;
+	private int lastDepth;
+
+	// Spawn distribution of the board being searched
+	private long[] spawnExponents = new long[0];
+	private double[] spawnProbabilities = new double[0];
+
+    /**
+     * @brief constructor
+     * @param pool - the fork/join pool the search is split across
+     * @param budgetNanos - the time chooseMove may spend on a move, in nanoseconds
+     */
+	public ExpectimaxSolver(ForkJoinPool pool, long budgetNanos) {
+		this(pool, budgetNanos, null);
+	}
+
+    /**
+     * @brief constructor
+     * @param pool - the fork/join pool the search is split across
+     * @param budgetNanos - the time chooseMove may spend on a move, in nanoseconds
+     * @param cache - a cache of searched positions, or null; solvers sharing a cache must play with the same spawn weights,
+     * and the cache must be made for the number of solvers searching concurrently
+     */
+	public ExpectimaxSolver(ForkJoinPool pool, long budgetNanos, TranspositionCache cache) {
+		this.pool = pool;
+		this.budgetNanos = budgetNanos;
+		this.cache = cache;
+	}
+
+    /**
+     * @brief chooses the best move found within the time budget
+     * @param board - the current state of the game (4x4)
+     * @return the best move, or null if no move changes the board
+     */
+	@Override
+	public MoveT chooseMove(GameBoard board) {
+		return bestMove(board, System.nanoTime() + budgetNanos);
+	}
+
+    /**
+     * @brief searches for the best move until a deadline
+     * @details the first iteration always completes so that a move is returned even for a past deadline
+     * @param board - the current state of the game (4x4)
+     * @param deadline - the System.nanoTime value at which the search stops deepening
+     * @throws IllegalArgumentException - if the board is not 4x4
+     * @return the best move of the deepest completed iteration, or null if no move changes the board
+     */
+	public MoveT bestMove(GameBoard board, long deadline) {
+		long packed = board instanceof BitBoardT ? ((BitBoardT) board).getPackedBoard() : BitBoardT.pack(board.getBoard());
+		loadSpawnDistribution(board.getSpawner());
+		MoveT best = null;
+		lastDepth = 0;
+		if (cache != null)
+			cache.newSearch();
+		for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+			MoveT found = pool.invoke(new SearchTask(packed, depth, 1.0, deadline, true, true, null));
+			if (found == null && depth > 1)
+				break;
+			best = found;
+			lastDepth = depth;
+			if (best == null || deadline - System.nanoTime() <= 0)
+				break;
+		}
+		return best;
+	}
+
+    /**
+     * @brief gets the depth of the last completed iteration of bestMove
+     * @return the search depth in moves
+     */
+	public int getLastDepth() {
+		return lastDepth;
+	}
+
+    /**
+     * @brief copies the tile values the spawner can draw, with their probabilities, skipping zero weights
+     */
+	private void loadSpawnDistribution(TileSpawner spawner) {
+		int count = 0;
+		for (int i = 0; i < spawner.getTileCount(); i++) {
+			if (spawner.getProbability(i) > 0)
+				count++;
+		}
+		if (spawnExponents.length != count) {
+			spawnExponents = new long[count];
+			spawnProbabilities = new double[count];
+		}
+		for (int i = 0, j = 0; i < spawner.getTileCount(); i++) {
+			if (spawner.getProbability(i) > 0) {
+				spawnExponents[j] = Integer.numberOfTrailingZeros(spawner.getTile(i));
+				spawnProbabilities[j++] = spawner.getProbability(i);
+			}
+		}
+	}
+
+    /**
+     * @brief evaluates a packed board with the row heuristic applied to its rows and columns
+     */
+	static double evaluate(long board) {
+		long columns = BitBoardT.transpose(board);
+		return ROW_HEURISTIC[(int) (board & 0xFFFF)] + ROW_HEURISTIC[(int) ((board >>> 16) & 0xFFFF)]
+				+ ROW_HEURISTIC[(int) ((board >>> 32) & 0xFFFF)] + ROW_HEURISTIC[(int) (board >>> 48)]
+				+ ROW_HEURISTIC[(int) (columns & 0xFFFF)] + ROW_HEURISTIC[(int) ((columns >>> 16) & 0xFFFF)]
+				+ ROW_HEURISTIC[(int) ((columns >>> 32) & 0xFFFF)] + ROW_HEURISTIC[(int) (columns >>> 48)];
+	}
+
+    /**
+     * @brief computes the value of a max node (the player to move) sequentially
+     * @details the deadline is not checked right above the leaves, so the first iteration always completes
+     * @return the value of the best move; 0 if no move is possible; NaN if the deadline passed
+     */
+	private double maxNode(long board, int depth, double probability, long deadline) {
+		if (depth > 0) {
+			if (deadline - System.nanoTime() <= 0)
+				return Double.NaN;
+			if (cache != null) {
+				long data = cache.probe(BoardSymmetry.canonicalize(board));
+				if (data != 0 && TranspositionCache.depthOf(data) >= depth)
+					return TranspositionCache.valueOf(data);
+			}
+		}
+		double best = 0;
+		MoveT bestMove = null;
+		for (MoveT move : MOVES) {
+			long moved = BitBoardT.moveBoard(board, move);
+			if (moved != board) {
+				double value = chanceNode(moved, depth, probability, deadline);
+				if (Double.isNaN(value))
+					return value;
+				if (bestMove == null || value > best) {
+					best = value;
+					bestMove = move;
+				}
+			}
+		}
+		if (depth > 0 && cache != null) {
+			int transform = BoardSymmetry.canonicalTransform(board);
+			long key = BoardSymmetry.apply(board, transform);
+			cache.store(key, depth, best, bestMove == null ? null : BoardSymmetry.mapMove(bestMove, transform));
+		}
+		return best;
+	}
+
+    /**
+     * @brief computes the value of a chance node (a tile being spawned) sequentially
+     * @return the expected value over every spawn; NaN if the deadline passed
+     */
+	private double chanceNode(long board, int depth, double probability, long deadline) {
+		if (depth == 0 || probability < MIN_PROBABILITY)
+			return evaluate(board);
+		int empty = BitBoardT.countEmptyCells(board);
+		double cellProbability = probability / empty;
+		double sum = 0;
+		for (int shift = 0; shift < 64; shift += 4) {
+			if (((board >>> shift) & 0xF) == 0) {
+				for (int i = 0; i < spawnExponents.length; i++) {
+					double p = spawnProbabilities[i];
+					sum += p * maxNode(board | (spawnExponents[i] << shift), depth - 1, cellProbability * p, deadline);
+				}
+			}
+		}
+		return sum / empty;
+	}
+
+    /**
+     * @brief A fork/join task evaluating a node close to the root
+     * @details Max tasks fork one chance task per move and chance tasks fork one max task per spawn,
+     * until the remaining depth drops below PARALLEL_DEPTH and the sequential search takes over.
+     */
+	private final class SearchTask extends RecursiveTask<MoveT> {
+
+		private final long board;
+		private final int depth;
+		private final double probability;
+		private final long deadline;
+		private final boolean maxNode;
+		private final boolean root;
+		private final MoveT move;
+		private double value;
+
+		SearchTask(long board, int depth, double probability, long deadline, boolean maxNode, boolean root, MoveT move) {
+			this.board = board;
+			this.depth = depth;
+			this.probability = probability;
+			this.deadline = deadline;
+			this.maxNode = maxNode;
+			this.root = root;
+			this.move = move;
+		}
+
+        /**
+         * @brief evaluates the node
+         * @return the best move of a max node (null if there is none or the deadline passed);
+         * the move leading to a chance node
+         */
+		@Override
+		protected MoveT compute() {
+			if (maxNode)
+				return computeMax();
+			if (depth < PARALLEL_DEPTH || probability < MIN_PROBABILITY) {
+				value = chanceNode(board, depth, probability, deadline);
+				return move;
+			}
+			int empty = BitBoardT.countEmptyCells(board);
+			double cellProbability = probability / empty;
+			int tiles = spawnExponents.length;
+			SearchTask[] spawns = new SearchTask[tiles * empty];
+			int count = 0;
+			for (int shift = 0; shift < 64; shift += 4) {
+				if (((board >>> shift) & 0xF) == 0) {
+					for (int i = 0; i < tiles; i++) {
+						spawns[count++] = new SearchTask(board | (spawnExponents[i] << shift), depth - 1,
+								cellProbability * spawnProbabilities[i], deadline, true, false, null);
+					}
+				}
+			}
+			invokeAll(spawns);
+			double sum = 0;
+			for (int i = 0; i < count; i++) {
+				sum += spawnProbabilities[i % tiles] * spawns[i].value;
+			}
+			value = sum / empty;
+			return move;
+		}
+
+        /**
+         * @brief evaluates a max node by forking one chance task per move
+         * @details the root always forks its moves and is not stopped by the deadline, so the first
+         * iteration completes; a deeper node with a probability of 1, after a forced spawn, is not the root
+         */
+		private MoveT computeMax() {
+			if (!root && depth < PARALLEL_DEPTH) {
+				value = maxNode(board, depth, probability, deadline);
+				return null;
+			}
+			if (!root && deadline - System.nanoTime() <= 0) {
+				value = Double.NaN;
+				return null;
+			}
+			SearchTask[] moves = new SearchTask[MOVES.length];
+			int count = 0;
+			for (MoveT m : MOVES) {
+				long moved = BitBoardT.moveBoard(board, m);
+				if (moved != board)
+					moves[count++] = new SearchTask(moved, depth, probability, deadline, false, false, m);
+			}
+			for (int i = 0; i < count - 1; i++) {
+				moves[i].fork();
+			}
+			MoveT best = null;
+			value = 0;
+			for (int i = count - 1; i >= 0; i--) {
+				SearchTask task = moves[i];
+				if (i == count - 1)
+					task.invoke();
+				else
+					task.join();
+				if (Double.isNaN(task.value)) {
+					value = Double.NaN;
+				} else if (!Double.isNaN(value) && (best == null || task.value > value)) {
+					value = task.value;
+					best = task.move;
+				}
+			}
+			return Double.isNaN(value) ? null : best;
+		}
+	}
+}
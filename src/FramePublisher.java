@@ -0,0 +1,111 @@
+/**
+ * @File: FramePublisher.java
+ * @Description: hands board states from the game logic thread to the Swing event thread, at most once per frame
+ */
+
+package src;
+
+// Import java libraries
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+/**
+ * @brief A mailbox holding the latest board state waiting to be shown by a GameUI
+ * @details The game logic thread copies every board it publishes into the pending frame; the event
+ * thread takes that frame at most once per 1/60 s. States published in between are coalesced: the
+ * pending frame keeps the latest board and chains the move descriptions, so the renderer animates
+ * every tile from where it was last shown to where it is now. Two frames are swapped between the
+ * threads, so publishing only allocates when the board size changes.
+ */
+public class FramePublisher {
+
+	// Shortest time between two frames handed to the view
+	private static final long FRAME_NANOS = 1000000000L / 60;
+
+	/**
+	 * @brief A board state copied out of the model
+	 */
+	private static final class Frame {
+		private int[][] board = new int[0][0];
+		private int score;
+		private final MoveDescription move = new MoveDescription();
+		private boolean animated; // move describes the travel from the last frame shown to board
+	}
+
+	// State Variables
+	private final GameUI game;
+	private final Object lock = new Object();
+	private Frame pending = new Frame();
+	private Frame delivered = new Frame();
+	private boolean waiting;   // pending holds a state the view has not taken yet
+	private boolean requested; // a delivery is scheduled on the event thread
+	private long lastDelivery;
+	private final Runnable delivery = this::deliver;
+	private final Timer delayedDelivery;
+
+    /**
+     * @brief constructor
+     * @param game - the game view showing the published frames
+     */
+	public FramePublisher(GameUI game) {
+		this.game = game;
+		delayedDelivery = new Timer(0, e -> deliver());
+		delayedDelivery.setRepeats(false);
+	}
+
+    /**
+     * @brief publishes a board state; may be called from any thread
+     * @param board - the current board, copied before returning
+     * @param score - the current score
+     * @param move - the travel of the tiles since the last published state, or null to show the board without animation
+     */
+	public void publish(int[][] board, int score, MoveDescription move) {
+		boolean schedule;
+		synchronized (lock) {
+			int size = board.length;
+			boolean animated = move != null && (!waiting || pending.animated && pending.board.length == size);
+			if (animated && waiting)
+				pending.move.then(move);
+			else if (animated)
+				pending.move.copyFrom(move);
+			pending.animated = animated;
+			if (pending.board.length != size)
+				pending.board = new int[size][size];
+			for (int i = 0; i < size; i++) {
+				System.arraycopy(board[i], 0, pending.board[i], 0, size);
+			}
+			pending.score = score;
+			waiting = true;
+			schedule = !requested;
+			requested = true;
+		}
+		Metrics.count(Metrics.Counter.FRAMES_PUBLISHED);
+		if (schedule)
+			SwingUtilities.invokeLater(delivery);
+	}
+
+    /**
+     * @brief hands the pending frame to the view, or waits until a frame has passed since the last one
+     */
+	private void deliver() {
+		long wait = lastDelivery + FRAME_NANOS - System.nanoTime();
+		if (wait > 0) {
+			delayedDelivery.setInitialDelay((int) Math.max(1, wait / 1000000));
+			delayedDelivery.restart();
+			return;
+		}
+		synchronized (lock) {
+			Frame swap = delivered;
+			delivered = pending;
+			pending = swap;
+			waiting = false;
+			requested = false;
+		}
+		lastDelivery = System.nanoTime();
+		Metrics.count(Metrics.Counter.FRAMES_SHOWN);
+		if (delivered.animated)
+			game.updateGrid(delivered.board, delivered.score, delivered.move);
+		else
+			game.updateGrid(delivered.board, delivered.score);
+	}
+}
@@ -0,0 +1,191 @@
+/**
+ * @File: GameBoard.java
+ * @Description: An interface implemented by the model modules (board engines) of the game
+ */
+
+package src;
+
+/**
+ * @brief An interface for the board engines of the game 2048
+ * @details Provides the operations the Controller needs from a model module, so that the
+ * board implementation (BoardT, BitBoardT) can be selected when the game is set up
+ */
+public interface GameBoard {
+
+    /**
+     * @brief clears the board, the score and the status so the board can be reused for a new game
+     */
+	public void reset();
+
+    /**
+     * @brief clears the board and changes its size for a new game
+     * @param size - the number of rows and columns
+     * @throws IllegalArgumentException - if the board engine does not support the size
+     */
+	public void reset(int size);
+
+    /**
+     * @brief gets the number of rows (and columns) of the board
+     * @return the size of the board
+     */
+	public int getSize();
+
+    /**
+     * @brief gets the status of the game
+     * @return status (true -> game in progress; false -> game is finished)
+     */
+	public boolean getStatus();
+
+    /**
+     * @brief sets the game status
+     * @param status - true for game in progress; false for game finished
+     */
+	public void setStatus(boolean status);
+
+    /**
+     * @brief gets the game board
+     * @return board
+     */
+	public int[][] getBoard();
+
+    /**
+     * @brief gets the current score
+     * @return the current score
+     */
+	public int getScore();
+
+    /**
+     * @brief sets the cell at given x and y with given tile value
+     * @param x - row number
+     * @param y - column number
+     * @param tile - tile value
+     */
+	public void setCell(int x, int y, int tile);
+
+    /**
+     * @brief gets the tile that wins the game on a board of this size
+     * @return the winning tile value (2048 on a 4x4 board)
+     */
+	public int getWinningTile();
+
+    /**
+     * @brief determines whether the game is won
+     * @return true if the board contains the winning tile or higher; false otherwise
+     */
+	public boolean isWinner();
+
+    /**
+     * @brief gets the highest tile on the board
+     * @return the highest tile value; 0 for an empty board
+     */
+	public int getMaxTile();
+
+    /**
+     * @brief gets the number of unoccupied cells
+     * @return the number of empty cells
+     */
+	public int getEmptyCellCount();
+
+    /**
+     * @brief determines whether the board is fully occupied
+     * @return true if the board doesn't contain a tile with value 0; false otherwise
+     */
+	public boolean isBoardFull();
+
+    /**
+     * @brief determines whether there exist a valid move
+     * @return true if there is an empty cell or two adjacent tiles with the same value; false otherwise
+     */
+	public boolean isAnyValidMove();
+
+    /**
+     * @brief generates a random tile value
+     * @return a random tile value
+     */
+	public int generateRandomTile();
+
+    /**
+     * @brief generates random board coordinates of a cell that is not occupied
+     * @return randomly generated coordinates of an unoccupied cell
+     */
+	public int[] generateRandomFreeCellCoord();
+
+    /**
+     * @brief picks a random unoccupied cell without allocating
+     * @return the index (x * size + y) of a randomly chosen unoccupied cell
+     */
+	public int generateRandomFreeCell();
+
+    /**
+     * @brief gets the spawner choosing the value and the cell of new tiles
+     * @return the tile spawner of the board
+     */
+	public TileSpawner getSpawner();
+
+    /**
+     * @brief replaces the spawner choosing the value and the cell of new tiles
+     * @param spawner - a tile spawner
+     */
+	public void setSpawner(TileSpawner spawner);
+
+    /**
+     * @brief attaches a description that every following move records the travel of its tiles into
+     * @param description - the description to overwrite on every move, or null to stop describing moves
+     */
+	public void setMoveDescription(MoveDescription description);
+
+    /**
+     * @brief gets the number of longs a packed state of the board takes at its current size
+     * @return the length of the state written by packState
+     */
+	public int getPackedStateLength();
+
+    /**
+     * @brief writes the tiles and the score into longs, without allocating
+     * @param words - the array to write into
+     * @param offset - the index of the first of the getPackedStateLength longs to write
+     */
+	public void packState(long[] words, int offset);
+
+    /**
+     * @brief restores the tiles and the score written by packState on a board of the same size
+     * @details the game is in progress afterwards; its status has to be updated by the caller
+     * @param words - the array holding the state
+     * @param offset - the index of the first long of the state
+     */
+	public void unpackState(long[] words, int offset);
+
+    /**
+     * @brief publishes an immutable snapshot of the tiles, the score and the status for other threads
+     * @details called by the owner of the board after each committed change, such as a move and its
+     * spawned tile; allocates a single BoardSnapshot
+     */
+	public void publishSnapshot();
+
+    /**
+     * @brief gets the last snapshot published, without locking, from any thread
+     * @return the snapshot; the empty board until the first one after a reset
+     */
+	public BoardSnapshot getSnapshot();
+
+    /**
+     * @brief checks whether performing a given potential move would change the state of the board
+     * @param move - a move to be checked
+     * @return true if performing a given move would have changed the state of the board; false otherwise
+     */
+	public boolean isBoardChangedOnMove(MoveT move);
+
+    /**
+     * @brief performs a given move and updates the state of the board accordingly
+     * @param move - a move to be performed
+     */
+	public void move(MoveT move);
+
+    /**
+     * @brief performs a given move in a single pass and describes its outcome
+     * @details a move that changes nothing leaves the board and the score untouched
+     * @param move - a move to be performed
+     * @return the outcome of the move; owned by the board and overwritten by its next move
+     */
+	public MoveResult applyMove(MoveT move);
+}
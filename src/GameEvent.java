@@ -0,0 +1,137 @@
+/**
+ * @File: GameEvent.java
+ * @Description: something that happened in a game, as published on a GameEventBus
+ */
+
+package src;
+
+/**
+ * @brief A mutable event, reused by the GameEventBus for every event of its slot
+ * @details Handlers get a copy owned by their subscription, valid until the handler returns; an
+ * event to be kept must be copied. Which fields are set depends on the type:
+ * - GAME_STARTED: the size of the board;
+ * - MOVE_APPLIED: the move, which changed the board;
+ * - MERGE: the cell two tiles merged into and the tile they made;
+ * - TILE_SPAWNED: the cell and the tile spawned;
+ * - BOARD_RESTORED: nothing more, sent after an undo or a redo;
+ * - GAME_OVER: whether the game is won and the highest tile.
+ * Every event carries the score after it and its sequence number on the bus.
+ */
+public class GameEvent {
+
+	/**
+	 * @brief The types of events
+	 */
+	public enum Type {
+		GAME_STARTED, MOVE_APPLIED, MERGE, TILE_SPAWNED, BOARD_RESTORED, GAME_OVER
+	}
+
+	// Sequence the fields were written for, or GameEventBus.WRITING; accessed by the bus only
+	long stamp = GameEventBus.WRITING;
+
+	// State Variables
+	long sequence;
+	Type type;
+	MoveT move;
+	int size;
+	int cell;
+	int tile;
+	int score;
+	boolean won;
+
+    /**
+     * @brief overwrites this event with another one
+     * @param other - the event to copy
+     */
+	void copyFrom(GameEvent other) {
+		sequence = other.sequence;
+		type = other.type;
+		move = other.move;
+		size = other.size;
+		cell = other.cell;
+		tile = other.tile;
+		score = other.score;
+		won = other.won;
+	}
+
+    /**
+     * @brief gets the sequence number of the event
+     * @return the number of events published on the bus before this one
+     */
+	public long getSequence() {
+		return sequence;
+	}
+
+    /**
+     * @brief gets the type of the event
+     * @return the type
+     */
+	public Type getType() {
+		return type;
+	}
+
+    /**
+     * @brief gets the move applied
+     * @return the move of a MOVE_APPLIED event
+     */
+	public MoveT getMove() {
+		return move;
+	}
+
+    /**
+     * @brief gets the size of the board
+     * @return the number of rows and columns of the board of a GAME_STARTED event
+     */
+	public int getSize() {
+		return size;
+	}
+
+    /**
+     * @brief gets the cell of the event
+     * @return the cell of a MERGE or TILE_SPAWNED event, indexed by x * size + y
+     */
+	public int getCell() {
+		return cell;
+	}
+
+    /**
+     * @brief gets the tile of the event
+     * @return the tile made by a MERGE, the tile of a TILE_SPAWNED or the highest tile at GAME_OVER
+     */
+	public int getTile() {
+		return tile;
+	}
+
+    /**
+     * @brief gets the score after the event
+     * @return the score
+     */
+	public int getScore() {
+		return score;
+	}
+
+    /**
+     * @brief determines whether the game is won
+     * @return true if a GAME_OVER event ends a won game; false otherwise
+     */
+	public boolean isWon() {
+		return won;
+	}
+
+	@Override
+	public String toString() {
+		switch (type) {
+		case GAME_STARTED:
+			return sequence + " " + type + " " + size + "x" + size;
+		case MOVE_APPLIED:
+			return sequence + " " + type + " " + move + " score " + score;
+		case MERGE:
+		case TILE_SPAWNED:
+			return sequence + " " + type + " " + tile + " at " + cell;
+		case GAME_OVER:
+			return sequence + " " + type + (won ? " won" : " lost") + " with " + tile + ", score " + score;
+		default:
+			return sequence + " " + type + " score " + score;
+		}
+	}
+}
@@ -0,0 +1,276 @@
+/**
+ * @File: GameEventBus.java
+ * @Description: fans the events of a game out to any number of subscribers through a ring buffer
+ */
+
+package src;
+
+// Import java libraries
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @brief A preallocated ring of GameEvents, written by the thread playing a game
+ * @details There is a single publisher, the controller of the game. Publishing fills the event of
+ * the next slot in place and advances the published sequence with release stores, without locks,
+ * allocation or any knowledge of the subscribers, so observers cost the move path nothing. Every
+ * subscription reads at its own pace, in batches, by copying events out of the ring. The publisher
+ * never waits: a subscription more than a ring behind is lapped, skips the events it lost and
+ * counts them. Each slot carries a stamp, the sequence its event was written for, which is checked
+ * again after the copy, so an event overwritten while being read is never handed out.
+ */
+public class GameEventBus {
+
+	public static final int DEFAULT_CAPACITY = 4096;
+
+	// Stamp of an event being written
+	static final long WRITING = -1;
+
+	// Events handed to the handler of a subscription thread per poll, and its idle waits
+	private static final int BATCH = 256;
+	private static final long MIN_IDLE_NANOS = 10_000;
+	private static final long MAX_IDLE_NANOS = 1_000_000;
+
+	private static final VarHandle STAMP;
+	private static final VarHandle PUBLISHED;
+
+	static {
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			STAMP = lookup.findVarHandle(GameEvent.class, "stamp", long.class);
+			PUBLISHED = lookup.findVarHandle(GameEventBus.class, "published", long.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	/**
+	 * @brief A reader of the events of a bus
+	 * @details Starts with the first event published after it was made. A subscription is read by
+	 * one thread at a time, either its own with start or any thread calling poll.
+	 */
+	public final class Subscription {
+
+		private final GameEvent event = new GameEvent();
+		private long next;
+		private volatile long missed;
+
+		private Subscription(long next) {
+			this.next = next;
+		}
+
+	    /**
+	     * @brief hands the events published since the last poll to a handler
+	     * @details never waits; the last event of a batch cut short by a skip is not flagged
+	     * @param handler - the handler, called once per event
+	     * @param max - the most events to hand out
+	     * @return the number of events handed out
+	     */
+		public int poll(GameEventHandler handler, int max) {
+			long head = (long) PUBLISHED.getAcquire(GameEventBus.this);
+			int count = 0;
+			while (next < head && count < max) {
+				if (head - next > ring.length)
+					skipTo(head - ring.length);
+				GameEvent slot = ring[(int) next & mask];
+				if ((long) STAMP.getAcquire(slot) == next) {
+					event.copyFrom(slot);
+					VarHandle.loadLoadFence();
+					if ((long) STAMP.getOpaque(slot) == next) {
+						next++;
+						count++;
+						handler.onEvent(event, next == head || count == max);
+						continue;
+					}
+				}
+				// lapped while reading: the publisher is overwriting the oldest events
+				head = (long) PUBLISHED.getAcquire(GameEventBus.this);
+				skipTo(Math.max(next + 1, head - ring.length + 1));
+			}
+			return count;
+		}
+
+	    /**
+	     * @brief hands every event to a handler on a new daemon thread, until the thread is interrupted
+	     * @param name - the name of the thread
+	     * @param handler - the handler, called on the new thread
+	     * @return the thread, started
+	     */
+		public Thread start(String name, GameEventHandler handler) {
+			Thread thread = new Thread(() -> {
+				long idle = MIN_IDLE_NANOS;
+				while (!Thread.currentThread().isInterrupted()) {
+					if (poll(handler, BATCH) > 0) {
+						idle = MIN_IDLE_NANOS;
+					} else {
+						LockSupport.parkNanos(idle);
+						idle = Math.min(2 * idle, MAX_IDLE_NANOS);
+					}
+				}
+			}, name);
+			thread.setDaemon(true);
+			thread.start();
+			return thread;
+		}
+
+	    /**
+	     * @brief gets the number of events skipped because the subscription fell a ring behind
+	     * @return the number of events missed
+	     */
+		public long getMissedCount() {
+			return missed;
+		}
+
+	    /**
+	     * @brief gets the number of events read or skipped
+	     * @return the sequence number of the next event to read
+	     */
+		public long getPosition() {
+			return next;
+		}
+
+		private void skipTo(long sequence) {
+			missed += sequence - next;
+			next = sequence;
+		}
+	}
+
+	// State Variables
+	private final GameEvent[] ring;
+	private final int mask;
+	private volatile long published;
+
+    /**
+     * @brief constructor, with DEFAULT_CAPACITY events
+     */
+	public GameEventBus() {
+		this(DEFAULT_CAPACITY);
+	}
+
+    /**
+     * @brief constructor
+     * @param capacity - the number of events a subscription may fall behind without missing any
+     * @throws IllegalArgumentException - if the capacity is not a positive power of two
+     */
+	public GameEventBus(int capacity) {
+		if (capacity <= 0 || Integer.bitCount(capacity) != 1)
+			throw new IllegalArgumentException("The capacity must be a positive power of two.");
+		ring = new GameEvent[capacity];
+		for (int i = 0; i < capacity; i++) {
+			ring[i] = new GameEvent();
+		}
+		mask = capacity - 1;
+	}
+
+    /**
+     * @brief makes a subscription to the events published from now on
+     * @return the subscription
+     */
+	public Subscription subscribe() {
+		return new Subscription(published);
+	}
+
+    /**
+     * @brief gets the number of events published
+     * @return the sequence number of the next event
+     */
+	public long getPublishedCount() {
+		return published;
+	}
+
+    /**
+     * @brief publishes the start of a game, on an empty board
+     * @param size - the number of rows and columns of the board
+     */
+	public void gameStarted(int size) {
+		GameEvent event = claim(GameEvent.Type.GAME_STARTED, 0);
+		event.size = size;
+		commit(event);
+	}
+
+    /**
+     * @brief publishes a move that changed the board
+     * @param move - the move
+     * @param score - the score after the move
+     */
+	public void moveApplied(MoveT move, int score) {
+		GameEvent event = claim(GameEvent.Type.MOVE_APPLIED, score);
+		event.move = move;
+		commit(event);
+	}
+
+    /**
+     * @brief publishes two tiles merged by the last move
+     * @param cell - the cell they merged into
+     * @param tile - the tile they made
+     * @param score - the score after the move
+     */
+	public void merge(int cell, int tile, int score) {
+		GameEvent event = claim(GameEvent.Type.MERGE, score);
+		event.cell = cell;
+		event.tile = tile;
+		commit(event);
+	}
+
+    /**
+     * @brief publishes a spawned tile
+     * @param cell - the cell of the tile
+     * @param tile - the tile
+     * @param score - the score
+     */
+	public void tileSpawned(int cell, int tile, int score) {
+		GameEvent event = claim(GameEvent.Type.TILE_SPAWNED, score);
+		event.cell = cell;
+		event.tile = tile;
+		commit(event);
+	}
+
+    /**
+     * @brief publishes a board restored by an undo or a redo
+     * @param score - the restored score
+     */
+	public void boardRestored(int score) {
+		commit(claim(GameEvent.Type.BOARD_RESTORED, score));
+	}
+
+    /**
+     * @brief publishes the end of a game
+     * @param won - true if the game is won; false if no move is left
+     * @param maxTile - the highest tile
+     * @param score - the final score
+     */
+	public void gameOver(boolean won, int maxTile, int score) {
+		GameEvent event = claim(GameEvent.Type.GAME_OVER, score);
+		event.won = won;
+		event.tile = maxTile;
+		commit(event);
+	}
+
+    /**
+     * @brief marks the event of the next slot as being written and clears it
+     */
+	private GameEvent claim(GameEvent.Type type, int score) {
+		long sequence = published;
+		GameEvent event = ring[(int) sequence & mask];
+		STAMP.setOpaque(event, WRITING);
+		VarHandle.storeStoreFence();
+		event.sequence = sequence;
+		event.type = type;
+		event.score = score;
+		event.move = null;
+		event.size = 0;
+		event.cell = 0;
+		event.tile = 0;
+		event.won = false;
+		return event;
+	}
+
+    /**
+     * @brief stamps an event written and publishes it
+     */
+	private void commit(GameEvent event) {
+		STAMP.setRelease(event, event.sequence);
+		PUBLISHED.setRelease(this, event.sequence + 1);
+	}
+}
@@ -0,0 +1,20 @@
+/**
+ * @File: GameEventHandler.java
+ * @Description: An interface implemented by the observers of a GameEventBus
+ */
+
+package src;
+
+/**
+ * @brief An interface for the modules observing the events of a game
+ * @details Called on the thread of the subscription, never on the thread playing the game.
+ */
+public interface GameEventHandler {
+
+    /**
+     * @brief handles an event
+     * @param event - the event, overwritten by the next one
+     * @param endOfBatch - true for the last event of a batch, when buffered work should be flushed
+     */
+	public void onEvent(GameEvent event, boolean endOfBatch);
+}
@@ -0,0 +1,142 @@
+/**
+ * @File: GameLoop.java
+ * @Description: runs the game logic on its own thread, fed by a bounded queue of user input
+ */
+
+package src;
+
+// Import java libraries
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * @brief A thread applying the user input to a ViewListener in the order it arrived
+ * @details Keeps moves, spawns and status checks off the Swing event thread. Moves go into a
+ * bounded queue and are dropped while it is full, as are undo and redo requests, so held arrow keys cannot build up a backlog;
+ * presses of the Play and Menu buttons wait for room instead, since they must not be lost. Every
+ * event is a task created up front, so queuing input allocates nothing.
+ */
+public class GameLoop {
+
+	// State Variables
+	private final BlockingQueue<Runnable> queue;
+	private final Runnable[] moves = new Runnable[MoveT.values().length];
+	private final Runnable play;
+	private final Runnable backToMenu;
+	private final Runnable undo;
+	private final Runnable redo;
+	private final Thread thread;
+
+    /**
+     * @brief constructor
+     * @param listener - the listener applying the input, called from the game logic thread only
+     * @param capacity - the number of moves that can wait for the game logic thread
+     * @throws IllegalArgumentException - if the capacity is below 1
+     */
+	public GameLoop(ViewListener listener, int capacity) {
+		queue = new ArrayBlockingQueue<>(capacity);
+		for (MoveT move : MoveT.values()) {
+			moves[move.ordinal()] = () -> listener.onMoveOccured(move);
+		}
+		play = listener::onPlayPressed;
+		backToMenu = listener::onBackToMenuPressed;
+		undo = listener::onUndoPressed;
+		redo = listener::onRedoPressed;
+		thread = new Thread(this::run, "game-logic");
+		thread.setDaemon(true);
+	}
+
+    /**
+     * @brief starts the game logic thread
+     */
+	public void start() {
+		thread.start();
+	}
+
+    /**
+     * @brief stops the game logic thread once the current event is applied
+     */
+	public void stop() {
+		thread.interrupt();
+	}
+
+    /**
+     * @brief queues a move
+     * @param move - a move the user intends to make
+     * @return true if the move was queued; false if it was dropped because the queue is full
+     */
+	public boolean submitMove(MoveT move) {
+		return submitOrDrop(moves[move.ordinal()]);
+	}
+
+    /**
+     * @brief queues a request to undo the last move
+     * @return true if the request was queued; false if it was dropped because the queue is full
+     */
+	public boolean submitUndo() {
+		return submitOrDrop(undo);
+	}
+
+    /**
+     * @brief queues a request to redo the last undone move
+     * @return true if the request was queued; false if it was dropped because the queue is full
+     */
+	public boolean submitRedo() {
+		return submitOrDrop(redo);
+	}
+
+    /**
+     * @brief queues a press of the Play button, waiting for room in the queue
+     */
+	public void submitPlay() {
+		submitAndWait(play);
+	}
+
+    /**
+     * @brief queues a press of the Menu button, waiting for room in the queue
+     */
+	public void submitBackToMenu() {
+		submitAndWait(backToMenu);
+	}
+
+    /**
+     * @brief queues an event unless the queue is full
+     */
+	private boolean submitOrDrop(Runnable event) {
+		if (queue.offer(event))
+			return true;
+		Metrics.count(Metrics.Counter.DROPPED_INPUT);
+		return false;
+	}
+
+    /**
+     * @brief queues an event that must not be dropped
+     */
+	private void submitAndWait(Runnable event) {
+		try {
+			queue.put(event);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+    /**
+     * @brief applies queued events until the thread is stopped
+     * @details an event failing with an exception is reported and skipped, so the game stays playable
+     */
+	private void run() {
+		while (true) {
+			Runnable event;
+			try {
+				event = queue.take();
+			} catch (InterruptedException e) {
+				return;
+			}
+			try {
+				event.run();
+			} catch (RuntimeException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+}
@@ -0,0 +1,317 @@
+/**
+ * @File: GameServer.java
+ * @Description: hosts many independent game sessions behind a small local HTTP API
+ */
+
+package src;
+
+// Import java libraries
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * @brief A headless server running a GameSession per player
+ * @details Every session is pinned to one of a fixed number of lanes, single-threaded executors
+ * shared by many sessions, chosen from the session id. All commands of a session run on its lane
+ * in the order they arrived, so controllers and boards need no locking, and a node hosts as many
+ * sessions as fit in memory with a thread count set by the lanes. HTTP threads route requests,
+ * write responses and answer reads of the state themselves from the last snapshot of the board.
+ *
+ * API (JSON responses):
+ * - POST /sessions?size=N creates a session (size 4 by default) and returns its state
+ * - GET /sessions returns the number of sessions
+ * - GET /sessions/{id} returns the state of a session
+ * - POST /sessions/{id}/{left|right|up|down|undo|redo|restart} plays a command and returns the state
+ * - DELETE /sessions/{id} ends a session
+ */
+public class GameServer {
+
+	/**
+	 * @brief The status code and body of a response
+	 */
+	private static final class Response {
+		private final int status;
+		private final String body;
+
+		private Response(int status, String body) {
+			this.status = status;
+			this.body = body;
+		}
+	}
+
+	static {
+		// Responses are small and written in two parts, headers then body; with Nagle's algorithm
+		// the body waits for the delayed acknowledgement of the headers, about 40 ms per request
+		if (System.getProperty("sun.net.httpserver.nodelay") == null)
+			System.setProperty("sun.net.httpserver.nodelay", "true");
+	}
+
+	// State Variables
+	private final HttpServer server;
+	private final ExecutorService http;
+	private final ExecutorService[] lanes;
+	private final Map<Long, GameSession> sessions = new ConcurrentHashMap<>();
+	private final AtomicLong nextId = new AtomicLong(1);
+	private final long seed;
+
+    /**
+     * @brief constructor, binding the server without starting it
+     * @param address - the address to listen on; port 0 picks a free port
+     * @param lanes - the number of threads running the sessions
+     * @param httpThreads - the number of threads routing requests
+     * @param seed - the root seed the seed of every session is derived from
+     * @throws IOException - if the address cannot be bound
+     * @throws IllegalArgumentException - if there is no lane or no HTTP thread
+     */
+	public GameServer(InetSocketAddress address, int lanes, int httpThreads, long seed) throws IOException {
+		if (lanes < 1 || httpThreads < 1)
+			throw new IllegalArgumentException("At least one lane and one HTTP thread are required.");
+		this.seed = seed;
+		this.lanes = new ExecutorService[lanes];
+		for (int i = 0; i < lanes; i++) {
+			String name = "session-lane-" + i;
+			this.lanes[i] = Executors.newSingleThreadExecutor(r -> daemon(r, name));
+		}
+		AtomicLong httpThreadCount = new AtomicLong();
+		http = Executors.newFixedThreadPool(httpThreads, r -> daemon(r, "http-" + httpThreadCount.getAndIncrement()));
+		server = HttpServer.create(address, 1024);
+		server.setExecutor(http);
+		server.createContext("/sessions", this::handle);
+	}
+
+    /**
+     * @brief starts accepting requests
+     */
+	public void start() {
+		server.start();
+	}
+
+    /**
+     * @brief stops accepting requests, waits up to a second for those in progress and stops the lanes
+     */
+	public void stop() {
+		server.stop(1);
+		for (ExecutorService lane : lanes) {
+			lane.shutdown();
+		}
+		http.shutdown();
+		try {
+			for (ExecutorService lane : lanes) {
+				lane.awaitTermination(1, TimeUnit.SECONDS);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+    /**
+     * @brief gets the port the server listens on
+     * @return the port
+     */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+    /**
+     * @brief gets the number of sessions
+     * @return the number of sessions created and not deleted
+     */
+	public int getSessionCount() {
+		return sessions.size();
+	}
+
+    /**
+     * @brief routes a request to the lane of its session
+     * @param exchange - the request
+     */
+	private void handle(HttpExchange exchange) {
+		String method = exchange.getRequestMethod();
+		String[] path = exchange.getRequestURI().getPath().split("/");
+		// path[0] is empty and path[1] is "sessions"
+		if (path.length == 2) {
+			if (method.equals("POST"))
+				create(exchange);
+			else if (method.equals("GET"))
+				reply(exchange, new Response(200, "{\"sessions\":" + sessions.size() + "}"));
+			else
+				reply(exchange, error(405, "Use GET or POST."));
+			return;
+		}
+		GameSession session = null;
+		try {
+			session = sessions.get(Long.parseLong(path[2]));
+		} catch (NumberFormatException e) {
+			// reported as an unknown session
+		}
+		if (session == null || path.length > 4) {
+			reply(exchange, error(404, "No such session."));
+			return;
+		}
+		GameSession target = session;
+		if (path.length == 3 && method.equals("GET"))
+			reply(exchange, new Response(200, target.toJson()));
+		else if (path.length == 3 && method.equals("DELETE"))
+			run(exchange, target, () -> {
+				sessions.remove(target.getId());
+				return new Response(204, "");
+			});
+		else if (path.length == 4 && method.equals("POST"))
+			run(exchange, target, () -> command(target, path[3]));
+		else
+			reply(exchange, error(405, "Unsupported method."));
+	}
+
+    /**
+     * @brief creates a session on its lane
+     */
+	private void create(HttpExchange exchange) {
+		int size = 4;
+		String query = exchange.getRequestURI().getQuery();
+		try {
+			if (query != null && query.startsWith("size="))
+				size = Integer.parseInt(query.substring(5));
+		} catch (NumberFormatException e) {
+			reply(exchange, error(400, "The size must be a number."));
+			return;
+		}
+		long id = nextId.getAndIncrement();
+		int boardSize = size;
+		CompletableFuture.supplyAsync(() -> {
+			GameSession session = new GameSession(id, boardSize, TileSpawner.seedFor(seed, id));
+			sessions.put(id, session);
+			return new Response(201, session.toJson());
+		}, laneOf(id)).whenCompleteAsync((response, failure) -> reply(exchange, response, failure), http);
+	}
+
+    /**
+     * @brief plays a command of a session
+     */
+	private static Response command(GameSession session, String name) {
+		ViewListener listener = session.getListener();
+		switch (name) {
+		case "undo":
+			listener.onUndoPressed();
+			break;
+		case "redo":
+			listener.onRedoPressed();
+			break;
+		case "restart":
+			listener.onPlayPressed();
+			break;
+		default:
+			try {
+				listener.onMoveOccured(MoveT.valueOf(name));
+			} catch (IllegalArgumentException e) {
+				return error(400, "Unknown command " + name + ".");
+			}
+		}
+		return new Response(200, session.toJson());
+	}
+
+    /**
+     * @brief runs a task on the lane of a session and replies with its response from an HTTP thread
+     */
+	private void run(HttpExchange exchange, GameSession session, Supplier<Response> task) {
+		CompletableFuture.supplyAsync(task, laneOf(session.getId()))
+				.whenCompleteAsync((response, failure) -> reply(exchange, response, failure), http);
+	}
+
+    /**
+     * @brief gets the lane of a session
+     */
+	private ExecutorService laneOf(long id) {
+		return lanes[(int) Long.remainderUnsigned(id, lanes.length)];
+	}
+
+    /**
+     * @brief replies with a response, or with the failure of the task that should have produced it
+     */
+	private static void reply(HttpExchange exchange, Response response, Throwable failure) {
+		if (failure != null) {
+			Throwable cause = failure.getCause() != null ? failure.getCause() : failure;
+			boolean invalid = cause instanceof IllegalArgumentException || cause instanceof IndexOutOfBoundsException;
+			response = error(invalid ? 400 : 500, String.valueOf(cause.getMessage()));
+		}
+		reply(exchange, response);
+	}
+
+    /**
+     * @brief writes a response and closes the exchange
+     */
+	private static void reply(HttpExchange exchange, Response response) {
+		try {
+			byte[] body = response.body.getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			exchange.sendResponseHeaders(response.status, body.length == 0 ? -1 : body.length);
+			if (body.length > 0) {
+				try (OutputStream out = exchange.getResponseBody()) {
+					out.write(body);
+				}
+			}
+		} catch (IOException e) {
+			// the client went away; nothing to tell it
+		} finally {
+			exchange.close();
+		}
+	}
+
+    /**
+     * @brief builds an error response
+     * @details the message may hold input of the client, such as an unknown command, so it is escaped
+     */
+	private static Response error(int status, String message) {
+		StringBuilder json = new StringBuilder(message.length() + 16).append("{\"error\":\"");
+		for (int i = 0; i < message.length(); i++) {
+			char c = message.charAt(i);
+			if (c == '"' || c == '\\')
+				json.append('\\').append(c);
+			else if (c < 0x20 || c == 0x7F || Character.isSurrogate(c))
+				json.append(String.format("\\u%04x", (int) c));
+			else
+				json.append(c);
+		}
+		return new Response(status, json.append("\"}").toString());
+	}
+
+    /**
+     * @brief creates a daemon thread
+     */
+	private static Thread daemon(Runnable task, String name) {
+		Thread thread = new Thread(task, name);
+		thread.setDaemon(true);
+		return thread;
+	}
+
+    /**
+     * @brief runs a server on the loopback interface until the process is stopped
+     * @param args - the port (default 2048), the number of lanes (default: all cores), the number of HTTP threads
+     * (default 2) and the root seed
+     * @throws IOException - if the port cannot be bound
+     * @throws InterruptedException - if the main thread is interrupted
+     */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : 2048;
+		int lanes = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		int httpThreads = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+		long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+		GameServer server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), lanes,
+				httpThreads, seed);
+		server.start();
+		System.out.println("Serving games on http://localhost:" + server.getPort() + "/sessions with " + lanes + " lanes");
+		Thread.currentThread().join();
+	}
+}
@@ -0,0 +1,127 @@
+/**
+ * @File: GameSession.java
+ * @Description: one game hosted by the GameServer, with its own controller and board
+ */
+
+package src;
+
+/**
+ * @brief A game played through the GameServer
+ * @details The session is the headless front end of its own Controller and BoardT: it shows
+ * nothing, animates nothing, so its board does not record the travel of tiles, and is read back
+ * as JSON after every command. Commands go through the ViewListener of
+ * the controller, like the keys of the Swing client. Commands are not thread safe; the server
+ * runs all of them on the lane of the session. The state is read from the last snapshot of the
+ * board, so it can be rendered on any thread while a command runs.
+ */
+public class GameSession implements GameView {
+
+	// Moves a player can undo in a row; bounds the history, about 1 KB for a 4x4 board, of every session
+	public static final int UNDO_DEPTH = 64;
+
+	// State Variables
+	private final long id;
+	private final int size;
+	private final BoardT model;
+	private final Controller controller;
+
+    /**
+     * @brief constructor, starting the game
+     * @param id - the id of the session
+     * @param size - the number of rows and columns of the board
+     * @param seed - the root seed of the games of the session
+     * @throws IllegalArgumentException - if the size is not between BoardT.MIN_SIZE and BoardT.MAX_SIZE
+     */
+	public GameSession(long id, int size, long seed) {
+		this.id = id;
+		this.size = size;
+		model = new BoardT(size);
+		controller = new Controller(model, this);
+		controller.setSeed(seed);
+		controller.setUndoDepth(UNDO_DEPTH);
+		controller.onPlayPressed();
+	}
+
+    /**
+     * @brief gets the id of the session
+     * @return the id
+     */
+	public long getId() {
+		return id;
+	}
+
+    /**
+     * @brief gets the listener the commands of the player are sent to
+     * @return the controller of the session
+     */
+	public ViewListener getListener() {
+		return controller;
+	}
+
+    /**
+     * @brief renders the state of the game after the last command, from any thread
+     * @return a JSON object with the id, the size, the score, the highest tile, the status and the board
+     */
+	public String toJson() {
+		BoardSnapshot board = model.getSnapshot();
+		int size = board.getSize();
+		StringBuilder json = new StringBuilder(64 + 8 * size * size);
+		json.append("{\"id\":").append(id).append(",\"size\":").append(size);
+		json.append(",\"score\":").append(board.getScore()).append(",\"maxTile\":").append(board.getMaxTile());
+		json.append(",\"status\":\"").append(board.getStatus() ? "playing" : board.isWinner() ? "won" : "lost");
+		json.append("\",\"board\":[");
+		for (int i = 0; i < size; i++) {
+			json.append(i == 0 ? "[" : ",[");
+			for (int j = 0; j < size; j++) {
+				if (j > 0)
+					json.append(',');
+				json.append(board.getTile(i, j));
+			}
+			json.append(']');
+		}
+		return json.append("]}").toString();
+	}
+
+	@Override
+	public void switchToMenu() {
+	}
+
+	@Override
+	public void switchToGame() {
+	}
+
+	@Override
+	public boolean isDisplaying() {
+		return false;
+	}
+
+	@Override
+	public boolean animatesMoves() {
+		return false;
+	}
+
+	@Override
+	public int getSelectedBoardSize() {
+		return size;
+	}
+
+	@Override
+	public void updateGameUI(int size) {
+	}
+
+	@Override
+	public void updateGrid(int[][] board, int score) {
+	}
+
+	@Override
+	public void updateGrid(int[][] board, int score, MoveDescription move) {
+	}
+
+	@Override
+	public void displayYouWonMessage() {
+	}
+
+	@Override
+	public void displayYouLostMessage() {
+	}
+}
@@ -10,30 +10,69 @@ import javax.swing.*;
 public class GameUI extends JFrame {
     // State Variables
     private JButton backToMenuButton;
-    private JLabel[][] grid;
-    private JPanel gamePanel, topPanel;
+    private BoardRenderer boardView;
+    private JPanel topPanel;
     private JLabel scoreLabel;
+    private JPanel replayPanel;
+    private JSlider replaySlider;
+    private JLabel replayLabel;
+    private int size;
+    private int renderedScore = -1;
 
     /**
      * @brief Constructor
-     * @details Initializes the frame and its components, setting the size dynamically based on board size
+     * @details Initializes the frame and its components for a 4x4 board
      */
     public GameUI() {
+        this(4);
+    }
+
+    /**
+     * @brief Constructor
+     * @details Initializes the frame and its components, setting the size dynamically based on board size
+     * @param size The number of rows and columns of the board
+     */
+    public GameUI(int size) {
         super("2048");
-        int size = 4;
-        setSize(size * 130, size * 150); // Dynamic sizing based on grid
         setLayout(new BorderLayout());
         setResizable(false);
-        setLocationRelativeTo(null);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 
         initializeTopPanel();
-        initializeGamePanel(size);
         initializeBackButton();
+        initializeReplayPanel();
+        boardView = new BoardRenderer(size);
 
         add(topPanel, BorderLayout.NORTH);
-        add(gamePanel, BorderLayout.CENTER);
+        add(boardView, BorderLayout.CENTER);
         add(backToMenuButton, BorderLayout.SOUTH);
+        layoutFrame(size);
+    }
+
+    /**
+     * @brief Clears the board and the score for a new game, reusing the frame
+     * @details Creates no component; a new size only resizes the frame
+     * @param size The number of rows and columns of the board
+     */
+    public void reset(int size) {
+        boardView.reset(size);
+        if (size != this.size) {
+            layoutFrame(size);
+            revalidate();
+        }
+        renderedScore = 0;
+        scoreLabel.setText("Score: 0");
+    }
+
+    /**
+     * @brief Sizes the frame for a board
+     * @param size The number of rows and columns of the board
+     */
+    private void layoutFrame(int size) {
+        this.size = size;
+        int cellSize = Math.max(65, 520 / size); // 130 pixels per cell on a 4x4 board
+        setSize(size * cellSize, size * cellSize + 80); // Dynamic sizing based on grid
+        setLocationRelativeTo(null);
     }
 
     /**
@@ -52,30 +91,6 @@ public class GameUI extends JFrame {
         topPanel.add(scoreLabel, BorderLayout.CENTER);
     }
 
-    /**
-     * @brief Initializes the game grid panel
-     */
-    private void initializeGamePanel(int size) {
-        gamePanel = new JPanel(new GridLayout(size, size, 10, 10));
-        gamePanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
-        gamePanel.setBackground(new Color(187, 173, 160));
-        grid = new JLabel[size][size];
-
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                JLabel cell = new JLabel("", SwingConstants.CENTER);
-                cell.setOpaque(true);
-                cell.setBackground(tileColor(0));
-                cell.setFont(new Font("Helvetica Neue", Font.BOLD, 55));
-                cell.setForeground(Color.DARK_GRAY);
-                cell.setBorder(BorderFactory.createLineBorder(new Color(187, 173, 160), 2));
-                cell.setPreferredSize(new Dimension(80, 80));
-                grid[i][j] = cell;
-                gamePanel.add(cell);
-            }
-        }
-    }
-
     /**
      * @brief Initializes the back-to-menu button
      */
@@ -101,60 +116,93 @@ public class GameUI extends JFrame {
     }
 
     /**
-     * @brief Updates the grid based on the current board state
+     * @brief Initializes the slider and the label shown instead of the back-to-menu button in replay mode
+     */
+    private void initializeReplayPanel() {
+        replayPanel = new JPanel(new BorderLayout(10, 0));
+        replayPanel.setBackground(new Color(143, 122, 102));
+        replayPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+
+        replaySlider = new JSlider(0, 0, 0);
+        replaySlider.setOpaque(false);
+        replaySlider.setFocusable(false); // arrow keys step through the replay instead
+        replayLabel = new JLabel("", SwingConstants.RIGHT);
+        replayLabel.setFont(new Font("Helvetica Neue", Font.BOLD, 14));
+        replayLabel.setForeground(Color.WHITE);
+
+        replayPanel.add(replaySlider, BorderLayout.CENTER);
+        replayPanel.add(replayLabel, BorderLayout.EAST);
+    }
+
+    /**
+     * @brief Switches the frame to replay mode for a recorded game
+     * @details Replaces the back-to-menu button with the replay slider and clears the board
+     * @param size The number of rows and columns of the board
+     * @param steps The number of records of the game, the maximum of the slider
+     */
+    public void showReplay(int size, int steps) {
+        reset(size);
+        replaySlider.setMaximum(steps);
+        replaySlider.setValue(0);
+        if (replayPanel.getParent() == null) {
+            remove(backToMenuButton);
+            add(replayPanel, BorderLayout.SOUTH);
+            revalidate();
+        }
+    }
+
+    /**
+     * @brief Shows the position of the replay on the slider and the label
+     * @param step The number of records applied
+     * @param text The description of the position
+     */
+    public void setReplayPosition(int step, String text) {
+        replaySlider.setValue(step);
+        replayLabel.setText(text);
+    }
+
+    /**
+     * @brief Gets the slider scrubbing through a replay
+     * @return The replay slider
+     */
+    public JSlider getReplaySlider() {
+        return replaySlider;
+    }
+
+    /**
+     * @brief Updates the grid based on the current board state, without animation
      * @param board The current board state
+     * @param score The current score
      */
     public void updateGrid(int[][] board, int score) {
-        int size = 4;
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                int value = board[i][j];
-                JLabel cell = grid[i][j];
-
-                if (value == 0) {
-                    cell.setText("");
-                } else {
-                    cell.setText(String.valueOf(value));
-                }
-
-                cell.setBackground(tileColor(value));
-                cell.setFont(tileFont(value));
-                cell.setForeground(value > 4 ? Color.WHITE : Color.DARK_GRAY);
-            }
-        }
-        scoreLabel.setText("Score: " + score);
+        long start = Metrics.begin();
+        boardView.setBoard(board);
+        updateScore(score);
+        Metrics.end(Metrics.Section.UPDATE_GRID, start);
     }
 
     /**
-     * @brief Maps tile values to colors
-     * @param tile The tile value
-     * @return The color associated with the tile value
+     * @brief Updates the grid based on the current board state, animating the move that led to it
+     * @param board The current board state
+     * @param score The current score
+     * @param move The travel of the tiles during the move
      */
-    private Color tileColor(int tile) {
-        return switch (tile) {
-            case 0 -> new Color(204, 192, 179);
-            case 2 -> new Color(238, 228, 218);
-            case 4 -> new Color(237, 224, 200);
-            case 8 -> new Color(242, 177, 121);
-            case 16 -> new Color(245, 149, 99);
-            case 32 -> new Color(246, 124, 95);
-            case 64 -> new Color(246, 94, 59);
-            case 128 -> new Color(237, 207, 114);
-            case 256 -> new Color(237, 204, 97);
-            case 512 -> new Color(237, 200, 80);
-            case 1024 -> new Color(237, 197, 63);
-            case 2048 -> new Color(237, 194, 46);
-            default -> new Color(60, 58, 50);
-        };
+    public void updateGrid(int[][] board, int score, MoveDescription move) {
+        long start = Metrics.begin();
+        boardView.animateMove(board, move);
+        updateScore(score);
+        Metrics.end(Metrics.Section.UPDATE_GRID, start);
     }
 
     /**
-     * @brief Maps tile values to fonts
-     * @param tile The tile value
-     * @return The font size associated with the tile value
+     * @brief Updates the score label when the score changed
+     * @param score The current score
      */
-    private Font tileFont(int tile) {
-        return new Font("Helvetica Neue", Font.BOLD, tile > 512 ? 40 : 50);
+    private void updateScore(int score) {
+        if (score != renderedScore) {
+            renderedScore = score;
+            scoreLabel.setText("Score: " + score);
+        }
     }
 
     /**
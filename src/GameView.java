@@ -0,0 +1,75 @@
+/**
+ * @File: GameView.java
+ * @Description: An interface implemented by the view modules (front ends) a Controller drives
+ */
+
+package src;
+
+/**
+ * @brief An interface for the front ends of the game
+ * @details Provides what the Controller shows to the player, so a controller can drive the Swing
+ * UserInterface, a game session of the GameServer or a headless stub alike. Front ends report
+ * what the player does to the controller through the ViewListener interface.
+ */
+public interface GameView {
+
+    /**
+     * @brief displays the menu
+     */
+	public void switchToMenu();
+
+    /**
+     * @brief displays the game
+     */
+	public void switchToGame();
+
+    /**
+     * @brief determines whether the front end shows anything to the player
+     * @return true if messages such as the end of game dialogs can be seen; false otherwise
+     */
+	public boolean isDisplaying();
+
+    /**
+     * @brief determines whether the front end animates moves from the travel of their tiles
+     * @return true if moves are displayed with updateGrid(board, score, move); false if the board after
+     * the move is enough, so the model is spared recording the travel
+     */
+	public boolean animatesMoves();
+
+    /**
+     * @brief gets the board size chosen for the next game
+     * @return the number of rows and columns of the board
+     */
+	public int getSelectedBoardSize();
+
+    /**
+     * @brief clears the game display for a new game
+     * @param size - the number of rows and columns of the board
+     */
+	public void updateGameUI(int size);
+
+    /**
+     * @brief displays a board without animation
+     * @param board - the current board; owned by the model, so it must be copied to be kept
+     * @param score - the current score
+     */
+	public void updateGrid(int[][] board, int score);
+
+    /**
+     * @brief displays the board after a move
+     * @param board - the current board; owned by the model, so it must be copied to be kept
+     * @param score - the current score
+     * @param move - the travel of the tiles during the move; overwritten by the next move
+     */
+	public void updateGrid(int[][] board, int score, MoveDescription move);
+
+    /**
+     * @brief tells the player the game is won
+     */
+	public void displayYouWonMessage();
+
+    /**
+     * @brief tells the player the game is lost
+     */
+	public void displayYouLostMessage();
+}
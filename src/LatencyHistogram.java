@@ -0,0 +1,124 @@
+/**
+ * @File: LatencyHistogram.java
+ * @Description: a fixed-size, thread-safe histogram of durations
+ */
+
+package src;
+
+// Import java libraries
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * @brief An ADT counting durations in log-linear buckets
+ * @details Durations below 32 ns get a bucket each; above, every power of two is split into 16
+ * buckets, so a percentile is within about 6% of the recorded value. All 960 buckets are allocated
+ * up front and recording is two atomic increments and a compare-and-set at most, so any thread can
+ * record without allocating or locking.
+ */
+public class LatencyHistogram {
+
+	// Values below LINEAR get a bucket each; every power of two above is split into LINEAR / 2 buckets,
+	// up to bit 62, the highest of a non-negative long
+	private static final int LINEAR_BITS = 5;
+	private static final int LINEAR = 1 << LINEAR_BITS;
+	private static final int BUCKETS = LINEAR + (62 - LINEAR_BITS + 1) * (LINEAR / 2);
+
+	// State Variables
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong total = new AtomicLong();
+	private final AtomicLong max = new AtomicLong();
+
+    /**
+     * @brief records a duration
+     * @param nanos - the duration in nanoseconds; negative durations count as 0
+     */
+	public void record(long nanos) {
+		long value = Math.max(0, nanos);
+		counts.incrementAndGet(bucketOf(value));
+		count.incrementAndGet();
+		total.addAndGet(value);
+		long previous;
+		while (value > (previous = max.get()) && !max.compareAndSet(previous, value)) {
+		}
+	}
+
+    /**
+     * @brief gets the number of recorded durations
+     * @return the count
+     */
+	public long getCount() {
+		return count.get();
+	}
+
+    /**
+     * @brief gets the mean of the recorded durations
+     * @return the mean in nanoseconds, 0 if nothing was recorded
+     */
+	public double getMean() {
+		long n = count.get();
+		return n == 0 ? 0 : (double) total.get() / n;
+	}
+
+    /**
+     * @brief gets the longest recorded duration
+     * @return the maximum in nanoseconds
+     */
+	public long getMax() {
+		return max.get();
+	}
+
+    /**
+     * @brief gets a percentile of the recorded durations
+     * @param percentile - the percentile (0-100)
+     * @return the upper bound of the bucket holding the percentile, in nanoseconds; 0 if nothing was recorded
+     */
+	public long getPercentile(double percentile) {
+		long n = count.get();
+		if (n == 0)
+			return 0;
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * n));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts.get(i);
+			if (seen >= rank)
+				return Math.min(upperBoundOf(i), max.get());
+		}
+		return max.get();
+	}
+
+    /**
+     * @brief clears the histogram
+     * @details durations recorded concurrently may be lost or partly kept
+     */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			counts.set(i, 0);
+		}
+		count.set(0);
+		total.set(0);
+		max.set(0);
+	}
+
+    /**
+     * @brief gets the bucket of a non-negative value
+     */
+	private static int bucketOf(long value) {
+		if (value < LINEAR)
+			return (int) value;
+		int shift = 63 - Long.numberOfLeadingZeros(value) - (LINEAR_BITS - 1);
+		return LINEAR + (shift - 1) * (LINEAR / 2) + (int) (value >>> shift) - LINEAR / 2;
+	}
+
+    /**
+     * @brief gets the largest value of a bucket
+     */
+	private static long upperBoundOf(int bucket) {
+		if (bucket < LINEAR)
+			return bucket;
+		int shift = (bucket - LINEAR) / (LINEAR / 2) + 1;
+		long top = (bucket - LINEAR) % (LINEAR / 2) + LINEAR / 2;
+		return ((top + 1) << shift) - 1;
+	}
+}
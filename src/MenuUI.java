@@ -15,6 +15,8 @@ public class MenuUI extends JFrame {
     private JPanel menuPanel;
     private JButton playButton;
     private JLabel headingLabel, descriptionLabel;
+    private JComboBox<String> sizeSelector;
+    private int minBoardSize;
 
     /**
      * @brief Constructor
@@ -31,7 +33,7 @@ public class MenuUI extends JFrame {
      * @brief Sets up the main JFrame properties
      */
     private void initializeFrame() {
-        setSize(600, 400);
+        setSize(600, 450);
         setLocationRelativeTo(null); // Center on screen
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setResizable(false);
@@ -59,6 +61,13 @@ public class MenuUI extends JFrame {
             new Color(119, 110, 101)
         );
 
+        // Board Size Selector
+        sizeSelector = new JComboBox<>();
+        sizeSelector.setFont(new Font("Helvetica Neue", Font.BOLD, 16));
+        sizeSelector.setForeground(new Color(119, 110, 101));
+        sizeSelector.setFocusable(false);
+        setBoardSizeRange(BoardT.MIN_SIZE, BoardT.MAX_SIZE);
+
         // Play Button
         playButton = createButton("Play Game", 24, new Color(238, 228, 218), new Color(119, 110, 101));
 
@@ -91,8 +100,12 @@ public class MenuUI extends JFrame {
         gbc.gridy = 2;
         menuPanel.add(descriptionLabel, gbc);
 
-        // Play Button
+        // Board Size Selector
         gbc.gridy = 3;
+        menuPanel.add(sizeSelector, gbc);
+
+        // Play Button
+        gbc.gridy = 4;
         gbc.gridwidth = 0;
         gbc.anchor = GridBagConstraints.CENTER;
         menuPanel.add(playButton, gbc);
@@ -172,4 +185,28 @@ public class MenuUI extends JFrame {
     public JButton getPlayButton() {
         return playButton;
     }
+
+    /**
+     * @brief Gets the board size selected by the player
+     * @return The number of rows and columns of the board
+     */
+    public int getSelectedBoardSize() {
+        return sizeSelector.getSelectedIndex() + minBoardSize;
+    }
+
+    /**
+     * @brief Sets the board sizes the player can select, preselecting 4x4 when available
+     * @param min The smallest selectable size
+     * @param max The largest selectable size
+     */
+    public void setBoardSizeRange(int min, int max) {
+        minBoardSize = min;
+        sizeSelector.removeAllItems();
+        for (int size = min; size <= max; size++) {
+            sizeSelector.addItem(size + " x " + size);
+        }
+        if (min <= 4 && 4 <= max) {
+            sizeSelector.setSelectedIndex(4 - min);
+        }
+    }
 }
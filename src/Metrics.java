@@ -0,0 +1,231 @@
+/**
+ * @File: Metrics.java
+ * @Description: latency histograms, counters and Flight Recorder events of the game
+ */
+
+package src;
+
+// Import java libraries
+import java.util.concurrent.atomic.LongAdder;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * @brief The instrumentation of the move path
+ * @details Off unless the JVM runs with -Dgame.metrics=true. The flag is a static final field, so
+ * when it is off the JIT compiles begin, end and count down to nothing. When it is on, every
+ * section records its duration into a LatencyHistogram and commits a src.GameSection Flight
+ * Recorder event (when a recording is running), and counters track moves, dropped input and frames.
+ * The counters of games, merges and undos are fed from a GameEventBus by observe, on a thread of
+ * their own, so they add nothing to the move path. The report is printed to standard error at exit and to standard output by dump, which the
+ * game view calls on F12.
+ */
+public final class Metrics {
+
+	// Whether the game is instrumented, set with -Dgame.metrics=true
+	public static final boolean ENABLED = Boolean.getBoolean("game.metrics");
+
+	/**
+	 * @brief A timed part of the move path
+	 */
+	public enum Section {
+		MOVE_OCCURED("Controller.onMoveOccured"),
+		APPLY_MOVE("GameBoard.applyMove"),
+		POPULATE_RANDOM_CELL("Controller.populateRandomCell"),
+		UPDATE_STATUS("Controller.updateStatus"),
+		UPDATE_GRID("GameUI.updateGrid");
+
+		private final String label;
+
+		Section(String label) {
+			this.label = label;
+		}
+	}
+
+	/**
+	 * @brief A counted occurrence
+	 */
+	public enum Counter {
+		MOVES("moves"),
+		UNCHANGED_MOVES("moves changing nothing"),
+		DROPPED_INPUT("dropped key presses"),
+		FRAMES_PUBLISHED("board states published"),
+		FRAMES_SHOWN("frames shown"),
+		GAMES_STARTED("games started"),
+		GAMES_WON("games won"),
+		GAMES_LOST("games lost"),
+		MERGES("merges"),
+		BOARDS_RESTORED("undos and redos"),
+		EVENTS_MISSED("game events missed");
+
+		private final String label;
+
+		Counter(String label) {
+			this.label = label;
+		}
+	}
+
+	/**
+	 * @brief The Flight Recorder event committed for every timed section
+	 */
+	@Name("src.GameSection")
+	@Label("Game Section")
+	@Category("2048")
+	@Description("Time spent in one instrumented section of the move path")
+	@StackTrace(false)
+	static final class SectionEvent extends Event {
+		@Label("Section")
+		String section;
+
+		@Label("Elapsed")
+		@Timespan(Timespan.NANOSECONDS)
+		long elapsed;
+	}
+
+	private static final LatencyHistogram[] HISTOGRAMS = new LatencyHistogram[Section.values().length];
+	private static final LongAdder[] COUNTERS = new LongAdder[Counter.values().length];
+
+	static {
+		for (int i = 0; i < HISTOGRAMS.length; i++) {
+			HISTOGRAMS[i] = new LatencyHistogram();
+		}
+		for (int i = 0; i < COUNTERS.length; i++) {
+			COUNTERS[i] = new LongAdder();
+		}
+		if (ENABLED)
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> System.err.print(report()), "metrics-report"));
+	}
+
+    /**
+     * @brief private constructor, the class only holds static methods
+     */
+	private Metrics() {
+	}
+
+    /**
+     * @brief starts timing a section
+     * @return the start time to pass to end, or 0 when the game is not instrumented
+     */
+	public static long begin() {
+		return ENABLED ? System.nanoTime() : 0L;
+	}
+
+    /**
+     * @brief finishes timing a section
+     * @param section - the section
+     * @param start - the value begin returned
+     */
+	public static void end(Section section, long start) {
+		if (ENABLED)
+			record(section, System.nanoTime() - start);
+	}
+
+    /**
+     * @brief counts an occurrence
+     * @param counter - the counter to increment
+     */
+	public static void count(Counter counter) {
+		if (ENABLED)
+			COUNTERS[counter.ordinal()].increment();
+	}
+
+    /**
+     * @brief counts the games, merges and undos published on a bus, on a new daemon thread
+     * @details events the thread falls too far behind to read are counted as missed
+     * @param events - the bus of the game
+     * @return the thread, started
+     */
+	public static Thread observe(GameEventBus events) {
+		GameEventBus.Subscription subscription = events.subscribe();
+		long[] missed = new long[1]; // events missed as of the last batch, read on the thread only
+		return subscription.start("metrics-events", (event, endOfBatch) -> {
+			switch (event.getType()) {
+			case GAME_STARTED:
+				count(Counter.GAMES_STARTED);
+				break;
+			case MERGE:
+				count(Counter.MERGES);
+				break;
+			case BOARD_RESTORED:
+				count(Counter.BOARDS_RESTORED);
+				break;
+			case GAME_OVER:
+				count(event.isWon() ? Counter.GAMES_WON : Counter.GAMES_LOST);
+				break;
+			default:
+				break;
+			}
+			if (endOfBatch && ENABLED) {
+				long total = subscription.getMissedCount();
+				COUNTERS[Counter.EVENTS_MISSED.ordinal()].add(total - missed[0]);
+				missed[0] = total;
+			}
+		});
+	}
+
+    /**
+     * @brief gets the histogram of a section
+     * @param section - the section
+     * @return the histogram, empty when the game is not instrumented
+     */
+	public static LatencyHistogram getHistogram(Section section) {
+		return HISTOGRAMS[section.ordinal()];
+	}
+
+    /**
+     * @brief gets the value of a counter
+     * @param counter - the counter
+     * @return the number of occurrences, 0 when the game is not instrumented
+     */
+	public static long getCount(Counter counter) {
+		return COUNTERS[counter.ordinal()].sum();
+	}
+
+    /**
+     * @brief prints the report to standard output
+     */
+	public static void dump() {
+		System.out.print(report());
+	}
+
+    /**
+     * @brief renders the percentiles of every section and the counters
+     * @return the report, with durations in microseconds
+     */
+	public static String report() {
+		StringBuilder out = new StringBuilder();
+		if (!ENABLED)
+			return out.append("metrics are off; run with -Dgame.metrics=true\n").toString();
+		out.append(String.format("%-30s %10s %10s %10s %10s %10s %10s%n", "section (us)", "count", "mean", "p50", "p99",
+				"p999", "max"));
+		for (Section section : Section.values()) {
+			LatencyHistogram histogram = HISTOGRAMS[section.ordinal()];
+			out.append(String.format("%-30s %10d %10.1f %10.1f %10.1f %10.1f %10.1f%n", section.label,
+					histogram.getCount(), histogram.getMean() / 1e3, histogram.getPercentile(50) / 1e3,
+					histogram.getPercentile(99) / 1e3, histogram.getPercentile(99.9) / 1e3, histogram.getMax() / 1e3));
+		}
+		for (Counter counter : Counter.values()) {
+			out.append(String.format("%-30s %10d%n", counter.label, COUNTERS[counter.ordinal()].sum()));
+		}
+		return out.toString();
+	}
+
+    /**
+     * @brief records the duration of a section into its histogram and the Flight Recorder
+     */
+	private static void record(Section section, long elapsed) {
+		HISTOGRAMS[section.ordinal()].record(elapsed);
+		SectionEvent event = new SectionEvent();
+		if (event.shouldCommit()) {
+			event.section = section.label;
+			event.elapsed = elapsed;
+			event.commit();
+		}
+	}
+}
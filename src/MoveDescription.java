@@ -0,0 +1,78 @@
+/**
+ * @File: MoveDescription.java
+ * @Description: describes where every tile travelled during a move, so the move can be animated
+ */
+
+package src;
+
+// Import java libraries
+import java.util.Arrays;
+
+/**
+ * @brief An ADT mapping every cell before a move to the cell its tile ended up in
+ * @details Filled in by a board it is attached to with GameBoard.setMoveDescription, on every move
+ * and overwritten by the next one, so describing moves does not allocate. Cells are indexed by
+ * x * size + y. Two tiles with the same destination merged there.
+ */
+public class MoveDescription {
+
+	// State Variables
+	private int size;
+	private final int[] destinations = new int[BoardT.MAX_SIZE * BoardT.MAX_SIZE];
+
+    /**
+     * @brief clears the description for a move on a board of a given size
+     * @param size - the number of rows and columns of the board
+     */
+	void start(int size) {
+		this.size = size;
+		Arrays.fill(destinations, 0, size * size, -1);
+	}
+
+    /**
+     * @brief records that the tile of a cell travelled to another cell
+     * @param source - the cell of the tile before the move
+     * @param destination - the cell of the tile after the move
+     */
+	void record(int source, int destination) {
+		destinations[source] = destination;
+	}
+
+    /**
+     * @brief overwrites this description with another one
+     * @param other - the description to copy
+     */
+	void copyFrom(MoveDescription other) {
+		size = other.size;
+		System.arraycopy(other.destinations, 0, destinations, 0, size * size);
+	}
+
+    /**
+     * @brief extends this description with the following move, so it describes both moves at once
+     * @details a tile spawned between the moves has no cell before the first one, so it is not described
+     * @param next - the description of the following move on the same board
+     */
+	void then(MoveDescription next) {
+		for (int cell = 0; cell < size * size; cell++) {
+			if (destinations[cell] >= 0)
+				destinations[cell] = next.destinations[destinations[cell]];
+		}
+	}
+
+    /**
+     * @brief gets the size of the board the move was made on
+     * @return the number of rows and columns
+     */
+	public int getSize() {
+		return size;
+	}
+
+    /**
+     * @brief gets the cell the tile of a cell travelled to
+     * @param source - the cell before the move
+     * @return the cell after the move, or -1 if the cell was empty
+     */
+	public int getDestination(int source) {
+		return destinations[source];
+	}
+}
@@ -0,0 +1,143 @@
+/**
+ * @File: MoveHistory.java
+ * @Description: an undo/redo history of packed board states
+ */
+
+package src;
+
+/**
+ * @brief An ADT recording the states of a board so moves can be undone and redone
+ * @details Every state is packed by the board into a few longs (16 bytes for a 4x4 board) and
+ * kept in a ring of longs. A history of limited depth keeps the latest depth + 1 states and
+ * overwrites the oldest one; an unlimited history doubles its ring when it is full. Recording,
+ * undoing and redoing take constant time and, once the ring has grown to its final size, allocate nothing.
+ */
+public class MoveHistory {
+
+	// Depth of a history keeping every state
+	public static final int UNLIMITED = 0;
+
+	// Number of states the ring holds before it first grows
+	private static final int INITIAL_CAPACITY = 64;
+
+	// State Variables
+	private final int limit; // most states kept
+	private long[] words = new long[0];
+	private int stride;   // longs per state
+	private int capacity; // states the ring holds
+	private int first;    // slot of the oldest state
+	private int count;    // states kept
+	private int current;  // position of the state the board is in, from the oldest state
+
+    /**
+     * @brief constructor
+     * @param depth - the number of moves that can be undone in a row, or UNLIMITED
+     * @throws IllegalArgumentException - if the depth is negative
+     */
+	public MoveHistory(int depth) {
+		if (depth < 0)
+			throw new IllegalArgumentException("History depth must not be negative.");
+		limit = depth == UNLIMITED ? Integer.MAX_VALUE : depth + 1;
+	}
+
+    /**
+     * @brief forgets every state and records the state a new game starts in
+     * @details the ring is only reallocated when the packed state length of the board changes
+     * @param board - the board of the new game
+     */
+	public void start(GameBoard board) {
+		int length = board.getPackedStateLength();
+		if (length != stride) {
+			stride = length;
+			capacity = Math.min(limit, INITIAL_CAPACITY);
+			words = new long[capacity * stride];
+		}
+		first = 0;
+		count = 0;
+		record(board);
+	}
+
+    /**
+     * @brief records the state a board is in after a move, forgetting the states that could be redone
+     * @details a history that was never started is started with the state
+     * @param board - the board the history was started with
+     */
+	public void record(GameBoard board) {
+		if (capacity == 0) {
+			start(board);
+			return;
+		}
+		count = count == 0 ? 0 : current + 1;
+		if (count == capacity) {
+			if (capacity < limit) {
+				grow();
+			} else {
+				first = (first + 1) % capacity;
+				count--;
+			}
+		}
+		board.packState(words, slot(count));
+		current = count++;
+	}
+
+    /**
+     * @brief restores the state before the last move
+     * @param board - the board the history was started with
+     * @return true if a state was restored; false if there is no move to undo
+     */
+	public boolean undo(GameBoard board) {
+		if (current == 0)
+			return false;
+		board.unpackState(words, slot(--current));
+		return true;
+	}
+
+    /**
+     * @brief restores the state after the last undone move
+     * @param board - the board the history was started with
+     * @return true if a state was restored; false if there is no move to redo
+     */
+	public boolean redo(GameBoard board) {
+		if (current >= count - 1)
+			return false;
+		board.unpackState(words, slot(++current));
+		return true;
+	}
+
+    /**
+     * @brief gets the number of moves that can be undone in a row
+     * @return the number of states before the current one
+     */
+	public int getUndoCount() {
+		return current;
+	}
+
+    /**
+     * @brief gets the number of moves that can be redone in a row
+     * @return the number of states after the current one
+     */
+	public int getRedoCount() {
+		return count == 0 ? 0 : count - 1 - current;
+	}
+
+    /**
+     * @brief gets the index of the first long of a state
+     */
+	private int slot(int position) {
+		return (first + position) % capacity * stride;
+	}
+
+    /**
+     * @brief doubles the ring, up to the number of states kept, moving the oldest state to the first slot
+     */
+	private void grow() {
+		int grown = (int) Math.min((long) capacity * 2, limit);
+		long[] larger = new long[grown * stride];
+		for (int position = 0; position < count; position++) {
+			System.arraycopy(words, slot(position), larger, position * stride, stride);
+		}
+		words = larger;
+		capacity = grown;
+		first = 0;
+	}
+}
@@ -0,0 +1,27 @@
+/**
+ * @File: MovePolicy.java
+ * @Description: An interface implemented by modules that choose moves for headless games
+ */
+
+package src;
+
+/**
+ * @brief An interface for choosing the next move of a game without a user interface
+ * @details Used by the Simulator to play games in bulk
+ */
+public interface MovePolicy {
+
+    /**
+     * @brief chooses the next move for a given board
+     * @param board - the current state of the game; must not be modified by the policy
+     * @return a move that changes the board, or null if the policy gives up
+     */
+	public MoveT chooseMove(GameBoard board);
+
+    /**
+     * @brief notifies the policy that a new game starts, so a randomized policy can be reproduced
+     * @param seed - a seed derived from the seed of the game
+     */
+	public default void newGame(long seed) {
+	}
+}
@@ -0,0 +1,77 @@
+/**
+ * @File: MoveResult.java
+ * @Description: describes the outcome of a move performed on a board
+ */
+
+package src;
+
+/**
+ * @brief An ADT describing the outcome of a move
+ * @details Filled in by GameBoard.applyMove. Each board owns a single MoveResult which is
+ * overwritten by its next move, so the move path does not allocate.
+ */
+public class MoveResult {
+
+	// State Variables
+	private boolean changed;
+	private int scoreGained;
+	private int merges;
+	private int maxMergedTile;
+	private int emptyCells;
+
+    /**
+     * @brief overwrites the outcome of the move
+     * @param changed - whether the move changed the board
+     * @param scoreGained - the score gained by the move
+     * @param merges - the number of merges performed
+     * @param maxMergedTile - the highest tile created by a merge (0 if there was no merge)
+     * @param emptyCells - the number of unoccupied cells after the move
+     */
+	void set(boolean changed, int scoreGained, int merges, int maxMergedTile, int emptyCells) {
+		this.changed = changed;
+		this.scoreGained = scoreGained;
+		this.merges = merges;
+		this.maxMergedTile = maxMergedTile;
+		this.emptyCells = emptyCells;
+	}
+
+    /**
+     * @brief determines whether the move changed the board
+     * @return true if any tile moved or merged; false otherwise (the board was left untouched)
+     */
+	public boolean isChanged() {
+		return changed;
+	}
+
+    /**
+     * @brief gets the score gained by the move
+     * @return the sum of the tiles created by merging
+     */
+	public int getScoreGained() {
+		return scoreGained;
+	}
+
+    /**
+     * @brief gets the number of merges performed by the move
+     * @return the number of merges
+     */
+	public int getMerges() {
+		return merges;
+	}
+
+    /**
+     * @brief gets the highest tile created by a merge
+     * @return the highest merged tile value; 0 if no tiles were merged
+     */
+	public int getMaxMergedTile() {
+		return maxMergedTile;
+	}
+
+    /**
+     * @brief gets the number of unoccupied cells after the move
+     * @return the number of empty cells
+     */
+	public int getEmptyCells() {
+		return emptyCells;
+	}
+}
@@ -0,0 +1,54 @@
+/**
+ * @File: RandomPolicy.java
+ * @Description: a move policy picking uniformly among the moves that change the board
+ */
+
+package src;
+
+// Import java libraries
+import java.util.SplittableRandom;
+
+/**
+ * @brief A MovePolicy choosing a random move that changes the board
+ * @details Not thread safe; each simulation worker uses its own instance
+ */
+public class RandomPolicy implements MovePolicy {
+
+	// State Variables
+	private static final MoveT[] MOVES = MoveT.values();
+	private SplittableRandom rand;
+	private final MoveT[] candidates = new MoveT[MOVES.length];
+
+    /**
+     * @brief constructor
+     * @param seed - seed of the random number generator
+     */
+	public RandomPolicy(long seed) {
+		rand = new SplittableRandom(seed);
+	}
+
+    /**
+     * @brief restarts the random sequence for a new game
+     * @param seed - a seed derived from the seed of the game
+     */
+	@Override
+	public void newGame(long seed) {
+		rand = new SplittableRandom(seed);
+	}
+
+    /**
+     * @brief chooses a random move that changes the board
+     * @param board - the current state of the game
+     * @return a random move changing the board, or null if there is none
+     */
+	@Override
+	public MoveT chooseMove(GameBoard board) {
+		int count = 0;
+		for (MoveT move : MOVES) {
+			if (board.isBoardChangedOnMove(move)) {
+				candidates[count++] = move;
+			}
+		}
+		return count == 0 ? null : candidates[rand.nextInt(count)];
+	}
+}
@@ -0,0 +1,241 @@
+/**
+ * @File: ReferenceBoard.java
+ * @Description: the move logic of the original BoardT, kept as the oracle the board engines are checked against
+ */
+
+package src;
+
+/**
+ * @brief A port of the grid and move logic of the original BoardT
+ * @details Keeps the int[][] grid and the compress, merge, compress sequence between the same reverse
+ * and transpose steps, so merging stays leftmost first and the score grows by the value of every merged
+ * tile. Two deliberate differences: reverse and transpose work in place instead of through a temporary
+ * grid, which only saves the allocation, and the board may have any size. The original also added the
+ * score of a checked move to the score (isBoardChangedOnMove merged a copy of the board); that bug is
+ * not ported, since no engine keeps it.
+ */
+class ReferenceBoard {
+
+	// State Variables
+	private final int[][] board;
+	private int score;
+
+    /**
+     * @brief constructor
+     * @details generates an empty board
+     * @param size - the number of rows and columns
+     */
+	ReferenceBoard(int size) {
+		board = new int[size][size];
+	}
+
+    /**
+     * @brief replaces the board and clears the score
+     * @param cells - the exponent of every cell (0 for an empty cell), indexed by x * size + y
+     */
+	void load(byte[] cells) {
+		int size = board.length;
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				int exponent = cells[i * size + j];
+				board[i][j] = exponent == 0 ? 0 : 1 << exponent;
+			}
+		}
+		score = 0;
+	}
+
+    /**
+     * @brief gets the game board
+     * @return board
+     */
+	int[][] getBoard() {
+		return board;
+	}
+
+    /**
+     * @brief gets the current score
+     * @return the current score
+     */
+	int getScore() {
+		return score;
+	}
+
+    /**
+     * @brief determines whether the board differs from given cells
+     * @param cells - the exponent of every cell, indexed by x * size + y
+     * @return true if any cell differs; false otherwise
+     */
+	boolean differsFrom(byte[] cells) {
+		int size = board.length;
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				int exponent = cells[i * size + j];
+				if (board[i][j] != (exponent == 0 ? 0 : 1 << exponent))
+					return true;
+			}
+		}
+		return false;
+	}
+
+    /**
+     * @brief gets the highest tile on the board
+     * @return the highest tile value; 0 for an empty board
+     */
+	int getMaxTile() {
+		int max = 0;
+		for (int[] row : board) {
+			for (int tile : row) {
+				max = Math.max(max, tile);
+			}
+		}
+		return max;
+	}
+
+    /**
+     * @brief gets the number of unoccupied cells
+     * @return the number of empty cells
+     */
+	int getEmptyCellCount() {
+		int empty = 0;
+		for (int[] row : board) {
+			for (int tile : row) {
+				if (tile == 0)
+					empty++;
+			}
+		}
+		return empty;
+	}
+
+    /**
+     * @brief determines whether there exist a valid move
+     * @details the original only compared adjacent tiles and was called once the board was full;
+     * an empty cell counts as a valid move here, as it does for the engines
+     * @return true if there is an empty cell or two adjacent tiles with the same value; false otherwise
+     */
+	boolean isAnyValidMove() {
+		int size = board.length;
+		if (getEmptyCellCount() > 0)
+			return true;
+		for (int i = 0; i < size - 1; i++) {
+			for (int j = 0; j < size - 1; j++) {
+				if (board[i][j] == board[i + 1][j] || board[i][j] == board[i][j + 1]) {
+					return true;
+				}
+			}
+		}
+		for (int i = 0; i < size - 1; i++) {
+			if (board[i][size - 1] == board[i + 1][size - 1]) {
+				return true;
+			}
+		}
+		for (int j = 0; j < size - 1; j++) {
+			if (board[size - 1][j] == board[size - 1][j + 1]) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+    /**
+     * @brief performs a given move and updates the state of the board accordingly
+     * @param move - a move to be performed
+     */
+	void move(MoveT move) {
+		if (move == MoveT.left) {
+			compressLeft(board);
+			merge(board);
+			compressLeft(board);
+		} else if (move == MoveT.right) {
+			reverse(board);
+			compressLeft(board);
+			merge(board);
+			compressLeft(board);
+			reverse(board);
+		} else if (move == MoveT.up) {
+			transpose(board);
+			compressLeft(board);
+			merge(board);
+			compressLeft(board);
+			transpose(board);
+		} else {
+			transpose(board);
+			reverse(board);
+			compressLeft(board);
+			merge(board);
+			compressLeft(board);
+			reverse(board);
+			transpose(board);
+		}
+	}
+
+    /**
+     * @brief reverses the values in a given 2d array
+     * @param arr - an array to be modified
+     */
+	private static void reverse(int[][] arr) {
+		int size = arr.length;
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size / 2; j++) {
+				int tmp = arr[i][j];
+				arr[i][j] = arr[i][size - 1 - j];
+				arr[i][size - 1 - j] = tmp;
+			}
+		}
+	}
+
+    /**
+     * @brief transposes the values in a given 2d array
+     * @param arr - an array to be modified
+     */
+	private static void transpose(int[][] arr) {
+		int size = arr.length;
+		for (int i = 0; i < size; i++) {
+			for (int j = i + 1; j < size; j++) {
+				int tmp = arr[i][j];
+				arr[i][j] = arr[j][i];
+				arr[j][i] = tmp;
+			}
+		}
+	}
+
+    /**
+     * @brief compresses the tiles in a given array to the left
+     * @param arr - an array to be modified
+     */
+	private static void compressLeft(int[][] arr) {
+		int size = arr.length;
+		int position;
+		for (int i = 0; i < size; i++) {
+			position = 0;
+			for (int j = 0; j < size; j++) {
+				if (arr[i][j] != 0) {
+					arr[i][position] = arr[i][j];
+					if (j != position) {
+						arr[i][j] = 0;
+					}
+					position++;
+				}
+			}
+		}
+	}
+
+    /**
+     * @brief merges adjacent tiles with the same values in a given array
+     * @details merges adjacent tiles with the same values into
+     * one tile of twice the value for each row starting from the leftmost tile.
+     * The tile merged becomes an empty tile. Updates the score accordingly.
+     * @param arr - an array to be modified
+     */
+	private void merge(int[][] arr) {
+		int size = arr.length;
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size - 1; j++) {
+				if (arr[i][j] == arr[i][j + 1] && arr[i][j] != 0) {
+					arr[i][j] *= 2;
+					score += arr[i][j]; // Update score with the value of the merged tile
+					arr[i][j + 1] = 0;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,316 @@
+/**
+ * @File: ReplayCheck.java
+ * @Description: checks that replay logs read back as they were written, sought or cut short
+ */
+
+package src;
+
+// Import java libraries
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * @brief Records generated games into a replay log and checks the log against them
+ * @details Games of every board size are played with random moves on a BoardT, with spawners of
+ * one, two and three tiles, blocks sealed early by flushes and now and then a state record going
+ * back to an earlier record, as an undo does. The state of the board after every record is kept,
+ * and the log is checked against those states three ways:
+ * - replayed from start to end by a ReplayPlayer;
+ * - sought through a ReplayIndex to random records, with a keyframe interval small enough for most
+ *   seeks to replay records after the keyframe, then stepped once more;
+ * - cut short at random lengths, where every game must replay up to the last whole block before
+ *   the cut and no further.
+ * The first difference is printed with the seed and the check exits with status 1.
+ */
+public class ReplayCheck {
+
+	// Records between two keyframes of the index of the log
+	private static final int INTERVAL = 7;
+
+	// Most records of a generated game
+	private static final int MAX_RECORDS = 3000;
+
+	private static final MoveT[] MOVES = MoveT.values();
+
+	// State Variables
+	private final SplittableRandom rand;
+	private final List<long[]> states = new ArrayList<>(); // per game, the packed state after each record
+	private final List<Integer> sizes = new ArrayList<>();
+	private final List<Integer> recordCounts = new ArrayList<>();
+	private final long[] words = new long[BoardT.MAX_SIZE * BoardT.MAX_SIZE];
+
+    /**
+     * @brief constructor
+     * @param seed - the seed of the generated games, moves, seeks and cuts
+     */
+	public ReplayCheck(long seed) {
+		rand = new SplittableRandom(seed);
+	}
+
+    /**
+     * @brief records games into a log, keeping the state after every record
+     * @param log - the file of the log, overwritten
+     * @param games - the number of games
+     * @throws IOException - if the log cannot be written
+     */
+	public void record(Path log, int games) throws IOException {
+		try (ReplayWriter writer = new ReplayWriter(log)) {
+			for (int g = 0; g < games; g++) {
+				int size = BoardT.MIN_SIZE + g % (BoardT.MAX_SIZE - BoardT.MIN_SIZE + 1);
+				TileSpawner spawner = spawner(g % 3, rand.nextLong());
+				BoardT board = new BoardT(size, spawner);
+				int length = board.getPackedStateLength();
+				int records = rand.nextInt(MAX_RECORDS);
+				long[] game = new long[(records + 1) * length];
+				board.packState(game, 0);
+				writer.startGame(size, spawner.getSeed(), spawner.getTiles());
+				int recorded = 0;
+				while (recorded < records) {
+					if (recorded == 0 || rand.nextInt(50) == 0) {
+						// the first record is the starting board, later ones go back to an earlier record
+						if (recorded == 0) {
+							spawn(board);
+							spawn(board);
+						} else {
+							board.unpackState(game, (1 + rand.nextInt(recorded)) * length);
+						}
+						writer.recordState(board.getBoard(), board.getScore());
+					} else {
+						MoveT move = changingMove(board);
+						if (move == null)
+							break;
+						board.applyMove(move);
+						int cell = spawn(board);
+						writer.recordMove(move, cell, board.getBoard()[cell / size][cell % size]);
+					}
+					recorded++;
+					board.packState(game, recorded * length);
+					if (rand.nextInt(200) == 0)
+						writer.flush();
+				}
+				writer.endGame();
+				states.add(Arrays.copyOf(game, (recorded + 1) * length));
+				sizes.add(size);
+				recordCounts.add(recorded);
+			}
+		}
+	}
+
+    /**
+     * @brief replays every record of a log and compares the board after each with the recorded state
+     * @param data - the whole log
+     * @throws IllegalStateException - on the first difference
+     */
+	public void checkSequential(ByteBuffer data) {
+		ReplayPlayer player = new ReplayPlayer(new ReplayReader(data));
+		for (int g = 0; g < states.size(); g++) {
+			if (!player.nextGame())
+				throw new IllegalStateException("Game " + g + " is missing from the log.");
+			int records = recordCount(g);
+			for (int step = 1; step <= records; step++) {
+				if (!player.step())
+					throw new IllegalStateException("Game " + g + " ends after " + (step - 1) + " of " + records + " records.");
+				compare(player.getBoard(), g, step, "replayed");
+			}
+			if (player.step())
+				throw new IllegalStateException("Game " + g + " has more than " + records + " records.");
+		}
+		if (player.nextGame())
+			throw new IllegalStateException("The log has more than " + states.size() + " games.");
+	}
+
+    /**
+     * @brief seeks to random records through the index of a log, compares the board there and one record later
+     * @param log - the file of the log, whose index is built next to it
+     * @param data - the whole log
+     * @param seeks - the number of seeks
+     * @throws IOException - if the index cannot be written
+     * @throws IllegalStateException - on the first difference
+     */
+	public void checkSeeks(Path log, ByteBuffer data, int seeks) throws IOException {
+		ReplayIndex index = ReplayIndex.open(log, data, INTERVAL);
+		if (index.getGameCount() != states.size())
+			throw new IllegalStateException("The index holds " + index.getGameCount() + " of " + states.size() + " games.");
+		for (int g = 0; g < states.size(); g++) {
+			if (index.getRecordCount(g) != recordCount(g) || index.getSize(g) != sizes.get(g))
+				throw new IllegalStateException("The index entry of game " + g + " does not match the game.");
+		}
+		ReplayPlayer player = new ReplayPlayer(new ReplayReader(data));
+		for (int i = 0; i < seeks; i++) {
+			int g = rand.nextInt(states.size());
+			int step = rand.nextInt(recordCount(g) + 1);
+			player.seek(index, g, step);
+			compare(player.getBoard(), g, step, "sought");
+			if (step < recordCount(g)) {
+				if (!player.step())
+					throw new IllegalStateException("Game " + g + " ends after the record sought to, " + step + ".");
+				compare(player.getBoard(), g, step + 1, "stepped after a seek");
+			}
+		}
+	}
+
+    /**
+     * @brief replays a log cut short at random lengths, which must end at the last whole block before the cut
+     * @param data - the whole log
+     * @param cuts - the number of cuts
+     * @throws IllegalStateException - on the first difference
+     */
+	public void checkTruncated(ByteBuffer data, int cuts) {
+		for (int i = 0; i < cuts; i++) {
+			int cut = rand.nextInt(data.remaining() + 1);
+			ByteBuffer prefix = data.duplicate();
+			prefix.limit(prefix.position() + cut);
+			int[] whole = wholeRecords(data, cut);
+			ReplayPlayer player = new ReplayPlayer(new ReplayReader(prefix.slice()));
+			int g = 0;
+			while (player.nextGame()) {
+				if (g == whole.length)
+					throw new IllegalStateException("A log cut at " + cut + " bytes has more than " + whole.length + " games.");
+				int step = 0;
+				while (player.step()) {
+					compare(player.getBoard(), g, ++step, "replayed from a log cut at " + cut + " bytes");
+				}
+				if (step != whole[g])
+					throw new IllegalStateException("Game " + g + " of a log cut at " + cut + " bytes replays " + step
+							+ " records instead of the " + whole[g] + " of its whole blocks.");
+				g++;
+			}
+			if (g != whole.length)
+				throw new IllegalStateException("A log cut at " + cut + " bytes has " + g + " of its " + whole.length + " whole games.");
+		}
+	}
+
+    /**
+     * @brief gets the number of records of a recorded game
+     * @param game - the index of the game
+     * @return the number of records
+     */
+	public int recordCount(int game) {
+		return recordCounts.get(game);
+	}
+
+    /**
+     * @brief counts the records of each game whose header and blocks lie wholly before a cut
+     * @details walks the headers and blocks of the log as laid out by ReplayWriter
+     */
+	private static int[] wholeRecords(ByteBuffer data, int cut) {
+		List<Integer> games = new ArrayList<>();
+		int start = data.position();
+		int pos = start;
+		while (data.limit() - pos > 14) {
+			int headerEnd = pos + 15 + data.get(pos + 14);
+			if (headerEnd - start > cut)
+				break;
+			int records = 0;
+			boolean whole = true;
+			pos = headerEnd;
+			while (true) {
+				int count = data.getInt(pos);
+				int end = pos + ReplayWriter.BLOCK_HEADER_BYTES + data.getInt(pos + 4) + ReplayWriter.BLOCK_TRAILER_BYTES;
+				whole &= end - start <= cut;
+				if (whole)
+					records += count;
+				pos = end;
+				if (count == 0)
+					break;
+			}
+			games.add(records);
+		}
+		return games.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+    /**
+     * @brief throws if a board differs from the state recorded after a record of a game
+     */
+	private void compare(BoardT board, int game, int step, String how) {
+		int length = board.getPackedStateLength();
+		board.packState(words, 0);
+		long[] expected = states.get(game);
+		if (board.getSize() != sizes.get(game)
+				|| !Arrays.equals(words, 0, length, expected, step * length, (step + 1) * length))
+			throw new IllegalStateException("Record " + step + " of game " + game + " " + how + " differs from the recorded board.");
+	}
+
+    /**
+     * @brief spawns a tile on the board with its spawner
+     * @return the cell of the tile
+     */
+	private static int spawn(BoardT board) {
+		int cell = board.generateRandomFreeCell();
+		board.setCell(cell / board.getSize(), cell % board.getSize(), board.generateRandomTile());
+		return cell;
+	}
+
+    /**
+     * @brief picks a random move changing the board
+     * @return the move, or null if none is left
+     */
+	private MoveT changingMove(BoardT board) {
+		int first = rand.nextInt(MOVES.length);
+		for (int i = 0; i < MOVES.length; i++) {
+			MoveT move = MOVES[(first + i) % MOVES.length];
+			if (board.isBoardChangedOnMove(move))
+				return move;
+		}
+		return null;
+	}
+
+    /**
+     * @brief creates a spawner of one, two or three tiles
+     */
+	private static TileSpawner spawner(int kind, long seed) {
+		switch (kind) {
+		case 0:
+			return TileSpawner.classic(seed);
+		case 1:
+			return new TileSpawner(new int[] { 2, 4, 8 }, new int[] { 6, 3, 1 }, seed);
+		default:
+			return new TileSpawner(new int[] { 2 }, new int[] { 1 }, seed);
+		}
+	}
+
+    /**
+     * @brief records games into a temporary log and checks it; exits with status 1 on the first difference
+     * @param args - the number of games (default 60), of seeks (default 2000), of cuts (default 200) and the seed
+     * @throws IOException - if the temporary log cannot be written
+     */
+	public static void main(String[] args) throws IOException {
+		int games = args.length > 0 ? Integer.parseInt(args[0]) : 60;
+		int seeks = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+		int cuts = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+		long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+		Path log = Files.createTempFile("check", ".replay");
+		boolean failed = false;
+		try {
+			ReplayCheck check = new ReplayCheck(seed);
+			long start = System.nanoTime();
+			check.record(log, games);
+			ByteBuffer data = ReplayPlayer.map(log);
+			check.checkSequential(data);
+			check.checkSeeks(log, data, seeks);
+			check.checkTruncated(data, cuts);
+			long records = 0;
+			for (int g = 0; g < games; g++) {
+				records += check.recordCount(g);
+			}
+			System.out.printf("games: %d, records: %d, log: %d bytes, seeks: %d, cuts: %d in %.2f s%n", games, records,
+					data.remaining(), seeks, cuts, (System.nanoTime() - start) / 1e9);
+			System.out.println("seed: " + seed);
+		} catch (IllegalStateException | IllegalArgumentException | IndexOutOfBoundsException e) {
+			System.out.println("seed: " + seed);
+			System.out.println(e.getMessage());
+			failed = true;
+		} finally {
+			Files.deleteIfExists(ReplayIndex.sidecar(log));
+			Files.deleteIfExists(log);
+		}
+		if (failed)
+			System.exit(1);
+	}
+}
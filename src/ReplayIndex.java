@@ -0,0 +1,273 @@
+/**
+ * @File: ReplayIndex.java
+ * @Description: a sidecar index of keyframes letting a replay log be sought to any record
+ */
+
+package src;
+
+// Import java libraries
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * @brief An index of the games of a replay log, with a keyframe every interval records
+ * @details Stored next to the log as <log>.idx (big-endian): a header (the int MAGIC, the int
+ * VERSION, the int interval, the long length of the indexed log, the int number of games and the
+ * int CRC32C of the first and last CHECKED_BYTES of the log), a
+ * table of the games (the long offset of the header of the game, the int number of records, the int
+ * board size and the long offset of its keyframes) and the keyframes. Keyframe j holds the point of
+ * the log after j * interval records (the block, the bit position within its payload and the
+ * records left in it) and the state of the board there packed by BoardT.packState. Seeking to a
+ * record restores the keyframe before it and replays fewer than interval records; the index is
+ * memory-mapped, so opening it reads nothing but its header. A log of the same length recorded
+ * again differs in its checksum, at least in the seed of its first game, so its index is rebuilt.
+ */
+public class ReplayIndex {
+
+	// Marks an index ("2IDX") and the version of its format
+	static final int MAGIC = 0x32494458;
+	static final int VERSION = 2;
+
+	// Records between two keyframes unless another interval is asked for
+	public static final int DEFAULT_INTERVAL = 64;
+
+	// Bytes of the start and of the end of the log covered by the checksum of the header
+	static final int CHECKED_BYTES = 4096;
+
+	// Layout
+	private static final int HEADER_BYTES = 28;
+	private static final int GAME_BYTES = 24;
+	private static final int POINT_BYTES = 12;
+
+	// State Variables
+	private final ByteBuffer index;
+	private final int interval;
+	private final int games;
+	private final long[] words = new long[stateLength(BoardT.MAX_SIZE)];
+
+    /**
+     * @brief constructor
+     * @param index - an index written by build
+     */
+	private ReplayIndex(ByteBuffer index) {
+		this.index = index;
+		interval = index.getInt(8);
+		games = index.getInt(20);
+	}
+
+    /**
+     * @brief gets the file of the index of a log
+     * @param log - the file of the log
+     * @return the sidecar file
+     */
+	public static Path sidecar(Path log) {
+		return Paths.get(log.toString() + ".idx");
+	}
+
+    /**
+     * @brief opens the index of a log, building it first if it is missing, stale or of another interval
+     * @param log - the file of the log
+     * @param data - the whole log, typically mapped with ReplayPlayer.map
+     * @param interval - the number of records between two keyframes
+     * @return the index
+     * @throws IOException - if the index cannot be read or written
+     * @throws IllegalArgumentException - if the interval is below 1 or the log is corrupt
+     */
+	public static ReplayIndex open(Path log, ByteBuffer data, int interval) throws IOException {
+		if (interval < 1)
+			throw new IllegalArgumentException("The keyframe interval must be at least 1.");
+		Path path = sidecar(log);
+		if (Files.exists(path)) {
+			ByteBuffer index = ReplayPlayer.map(path);
+			if (index.remaining() >= HEADER_BYTES && index.getInt(0) == MAGIC && index.getInt(4) == VERSION
+					&& index.getInt(8) == interval && index.getLong(12) == data.remaining()
+					&& index.getInt(24) == checksum(data))
+				return new ReplayIndex(index);
+		}
+		ByteBuffer built = build(data, interval);
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (built.hasRemaining()) {
+				channel.write(built);
+			}
+		}
+		return new ReplayIndex(built.flip());
+	}
+
+    /**
+     * @brief replays every game of a log and collects its keyframes
+     * @param data - the whole log
+     * @param interval - the number of records between two keyframes
+     * @return the index, from position 0 to its limit
+     * @throws IllegalArgumentException - if the log is corrupt
+     */
+	static ByteBuffer build(ByteBuffer data, int interval) {
+		ReplayReader reader = new ReplayReader(data);
+		BoardT board = new BoardT();
+		long[] state = new long[stateLength(BoardT.MAX_SIZE)];
+
+		// keyframes are collected first, since the table before them needs the number of games
+		ByteBuffer keyframes = ByteBuffer.allocate(1 << 16);
+		ByteBuffer table = ByteBuffer.allocate(1 << 12);
+		int games = 0;
+		while (reader.nextGame()) {
+			int size = reader.getSize();
+			board.reset(size);
+			int stride = POINT_BYTES + 8 * board.getPackedStateLength();
+			table = ensure(table, GAME_BYTES);
+			table.putLong(reader.getGameOffset());
+			int recordsAt = table.position();
+			table.putInt(0).putInt(size).putLong(keyframes.position());
+			int records = 0;
+			do {
+				if (records % interval == 0) {
+					keyframes = ensure(keyframes, stride);
+					keyframes.putInt(reader.getBlockStart()).putInt(reader.getBitPosition()).putInt(reader.getRecordsLeft());
+					board.packState(state, 0);
+					for (int i = 0; i < board.getPackedStateLength(); i++) {
+						keyframes.putLong(state[i]);
+					}
+				}
+				if (!reader.nextRecord())
+					break;
+				ReplayPlayer.apply(reader, board);
+				records++;
+			} while (true);
+			table.putInt(recordsAt, records);
+			games++;
+		}
+
+		int keyframesAt = HEADER_BYTES + table.position();
+		ByteBuffer index = ByteBuffer.allocate(keyframesAt + keyframes.position());
+		index.putInt(MAGIC).putInt(VERSION).putInt(interval).putLong(data.remaining()).putInt(games).putInt(checksum(data));
+		table.flip();
+		while (table.hasRemaining()) {
+			index.putLong(table.getLong()).putInt(table.getInt()).putInt(table.getInt()).putLong(keyframesAt + table.getLong());
+		}
+		index.put(keyframes.flip());
+		return index.flip();
+	}
+
+    /**
+     * @brief computes the checksum telling whether an index was built from a log
+     * @param data - the whole log
+     * @return the CRC32C of its first and last CHECKED_BYTES, which overlap in a shorter log
+     */
+	static int checksum(ByteBuffer data) {
+		CRC32C crc = new CRC32C();
+		int checked = Math.min(data.remaining(), CHECKED_BYTES);
+		ByteBuffer part = data.duplicate();
+		crc.update(part.limit(part.position() + checked));
+		part = data.duplicate();
+		crc.update(part.position(part.limit() - checked));
+		return (int) crc.getValue();
+	}
+
+    /**
+     * @brief gets the number of records between two keyframes
+     * @return the interval
+     */
+	public int getInterval() {
+		return interval;
+	}
+
+    /**
+     * @brief gets the number of games of the log
+     * @return the number of games
+     */
+	public int getGameCount() {
+		return games;
+	}
+
+    /**
+     * @brief gets the offset of the header of a game in the log
+     * @param game - the index of the game
+     * @return the offset
+     * @throws IndexOutOfBoundsException - if there is no such game
+     */
+	public long getGameOffset(int game) {
+		return index.getLong(gameEntry(game));
+	}
+
+    /**
+     * @brief gets the number of records of a game
+     * @param game - the index of the game
+     * @return the number of records
+     * @throws IndexOutOfBoundsException - if there is no such game
+     */
+	public int getRecordCount(int game) {
+		return index.getInt(gameEntry(game) + 8);
+	}
+
+    /**
+     * @brief gets the size of the board of a game
+     * @param game - the index of the game
+     * @return the number of rows and columns
+     * @throws IndexOutOfBoundsException - if there is no such game
+     */
+	public int getSize(int game) {
+		return index.getInt(gameEntry(game) + 12);
+	}
+
+    /**
+     * @brief restores the keyframe at or before a record and replays the records after it
+     * @param game - the index of the game
+     * @param step - the number of records of the game to apply (0 for the empty board)
+     * @param reader - a reader of the log, left after the record
+     * @param board - the board to overwrite with the state after the record
+     * @throws IndexOutOfBoundsException - if there is no such game or record
+     */
+	void seek(int game, int step, ReplayReader reader, BoardT board) {
+		int entry = gameEntry(game);
+		if (step < 0 || step > index.getInt(entry + 8))
+			throw new IndexOutOfBoundsException("Record " + step + " is not in the game.");
+		int size = index.getInt(entry + 12);
+		board.reset(size);
+		int length = board.getPackedStateLength();
+		int keyframe = step / interval;
+		int at = (int) (index.getLong(entry + 16) + (long) keyframe * (POINT_BYTES + 8 * length));
+		for (int i = 0; i < length; i++) {
+			words[i] = index.getLong(at + POINT_BYTES + 8 * i);
+		}
+		board.unpackState(words, 0);
+		reader.resume(index.getLong(entry), index.getInt(at), index.getInt(at + 4), index.getInt(at + 8));
+		for (int applied = keyframe * interval; applied < step; applied++) {
+			reader.nextRecord();
+			ReplayPlayer.apply(reader, board);
+		}
+	}
+
+    /**
+     * @brief gets the position of the entry of a game in the table
+     */
+	private int gameEntry(int game) {
+		if (game < 0 || game >= games)
+			throw new IndexOutOfBoundsException("Game " + game + " is not in the log.");
+		return HEADER_BYTES + game * GAME_BYTES;
+	}
+
+    /**
+     * @brief gets the number of longs of a state packed by a BoardT of a given size
+     */
+	private static int stateLength(int size) {
+		BoardT board = new BoardT(size);
+		return board.getPackedStateLength();
+	}
+
+    /**
+     * @brief doubles a buffer until it has room for a given number of bytes
+     */
+	private static ByteBuffer ensure(ByteBuffer buffer, int bytes) {
+		if (buffer.remaining() >= bytes)
+			return buffer;
+		ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+		larger.put(buffer.flip());
+		return larger;
+	}
+}
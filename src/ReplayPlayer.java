@@ -0,0 +1,160 @@
+/**
+ * @File: ReplayPlayer.java
+ * @Description: rebuilds recorded games by feeding a replay log back through BoardT
+ */
+
+package src;
+
+// Import java libraries
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * @brief Replays the games of a ReplayReader on a BoardT, one record at a time
+ * @details A move record applies the move and sets the spawned tile; a state record overwrites
+ * the board and the score. A move that would not change the board means the log does not match
+ * the rules it was recorded with, and is reported as corrupt.
+ */
+public class ReplayPlayer {
+
+	// State Variables
+	private final ReplayReader reader;
+	private final BoardT board = new BoardT();
+	private long step;
+
+    /**
+     * @brief constructor
+     * @param reader - the log to replay
+     */
+	public ReplayPlayer(ReplayReader reader) {
+		this.reader = reader;
+	}
+
+    /**
+     * @brief maps a replay log file into memory
+     * @param path - the file of the log
+     * @return a read-only buffer over the whole file
+     * @throws IOException - if the file cannot be mapped or is longer than ReplayWriter.MAX_LOG_BYTES
+     */
+	public static MappedByteBuffer map(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			if (channel.size() > ReplayWriter.MAX_LOG_BYTES)
+				throw new IOException(path + " is longer than the " + ReplayWriter.MAX_LOG_BYTES + " bytes a replay log is capped at.");
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+	}
+
+    /**
+     * @brief moves to the next game of the log, with an empty board of its size
+     * @return true if a game was found; false at the end of the log
+     */
+	public boolean nextGame() {
+		if (!reader.nextGame())
+			return false;
+		board.reset(reader.getSize());
+		step = 0;
+		return true;
+	}
+
+    /**
+     * @brief applies the next record of the current game to the board
+     * @return true if a record was applied; false at the end of the game
+     * @throws IllegalArgumentException - if the log is corrupt
+     */
+	public boolean step() {
+		if (!reader.nextRecord())
+			return false;
+		apply(reader, board);
+		step++;
+		return true;
+	}
+
+    /**
+     * @brief applies the record a reader is on to a board
+     * @param reader - a reader on a record
+     * @param board - a board of the size of the game, in the state before the record
+     * @throws IllegalArgumentException - if the move of the record does not change the board
+     */
+	static void apply(ReplayReader reader, BoardT board) {
+		if (reader.isState()) {
+			board.restore(reader.getExponents(), reader.getScore());
+			return;
+		}
+		if (!board.applyMove(reader.getMove()).isChanged())
+			throw new IllegalArgumentException("Corrupt replay log: a recorded move does not change the board in the game at offset "
+					+ reader.getGameOffset() + ".");
+		int cell = reader.getSpawnCell();
+		board.setCell(cell / board.getSize(), cell % board.getSize(), reader.getSpawnTile());
+	}
+
+    /**
+     * @brief moves to a record of a game through the keyframes of an index of the log
+     * @param index - the index of the log the reader reads
+     * @param game - the index of the game
+     * @param step - the number of records of the game to apply (0 for the empty board)
+     * @throws IndexOutOfBoundsException - if there is no such game or record
+     */
+	public void seek(ReplayIndex index, int game, int step) {
+		index.seek(game, step, reader, board);
+		this.step = step;
+	}
+
+    /**
+     * @brief gets the reader of the log, on the last applied record
+     * @return the reader
+     */
+	public ReplayReader getReader() {
+		return reader;
+	}
+
+    /**
+     * @brief gets the board of the game being replayed
+     * @return the board, in the state after the last applied record
+     */
+	public BoardT getBoard() {
+		return board;
+	}
+
+    /**
+     * @brief gets the number of records applied in the current game
+     * @return the number of steps
+     */
+	public long getStep() {
+		return step;
+	}
+
+    /**
+     * @brief replays every game of a log and prints a line per game and a summary
+     * @param args - the file of the log, and "quiet" to print the summary only
+     * @throws IOException - if the file cannot be read
+     */
+	public static void main(String[] args) throws IOException {
+		if (args.length == 0) {
+			System.err.println("usage: ReplayPlayer <log> [quiet]");
+			System.exit(2);
+		}
+		Path path = Paths.get(args[0]);
+		boolean quiet = args.length > 1 && args[1].equals("quiet");
+		long start = System.nanoTime();
+		ReplayPlayer player = new ReplayPlayer(new ReplayReader(map(path)));
+		long games = 0, steps = 0;
+		while (player.nextGame()) {
+			while (player.step()) {
+			}
+			games++;
+			steps += player.getStep();
+			if (!quiet)
+				System.out.printf("seed %016x  %dx%d  %6d records  score %8d  max tile %6d%n", player.reader.getSeed(),
+						player.board.getSize(), player.board.getSize(), player.getStep(), player.board.getScore(),
+						player.board.getMaxTile());
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		long bytes = path.toFile().length();
+		System.out.printf("%d games, %d records, %d bytes (%.2f bytes per record), replayed in %.2f s%n", games, steps,
+				bytes, steps == 0 ? 0.0 : (double) bytes / steps, seconds);
+	}
+}
@@ -0,0 +1,330 @@
+/**
+ * @File: ReplayReader.java
+ * @Description: decodes the games of a replay log written by a ReplayWriter
+ */
+
+package src;
+
+// Import java libraries
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32C;
+
+/**
+ * @brief A cursor over the games and records of a replay log
+ * @details Reads the log from a ByteBuffer, typically a memory-mapped file, without copying it.
+ * The checksum of every block is verified before its records are decoded. A log cut short while
+ * it was written ends at its last whole block, and its last game ends there too. The record the
+ * cursor is on is exposed through getters that are overwritten by the next call to nextRecord.
+ */
+public class ReplayReader {
+
+	// State Variables
+	private final ByteBuffer data;
+	private final ByteBuffer checked; // view of the block whose checksum is computed
+	private final CRC32C crc = new CRC32C();
+	private long gameOffset;
+	private int size;
+	private int cellBits;
+	private final int[] spawnTiles = new int[30];
+	private int spawnTileCount;
+	private int tileBits;
+	private long seed;
+	private boolean inGame;
+	private int blockStart;   // position of the current block, -1 before the first block of the game
+	private int blockRecords; // records left in the current block
+	private int blockEnd;     // position of the checksum of the current block
+	private long bits;        // read bits not decoded yet
+	private int bitCount;
+
+	// The current record
+	private int opcode;
+	private int spawnCell;
+	private int spawnTile;
+	private int score;
+	private final byte[] exponents = new byte[BoardT.MAX_SIZE * BoardT.MAX_SIZE];
+
+    /**
+     * @brief constructor
+     * @param data - the log, from its position to its limit; the buffer itself is not modified
+     */
+	public ReplayReader(ByteBuffer data) {
+		this.data = data.duplicate();
+		checked = data.duplicate();
+	}
+
+    /**
+     * @brief moves to the start of a game at a given offset of the log
+     * @param offset - the offset of the header of the game, as returned by getGameOffset
+     * @throws IllegalArgumentException - if no game header is found there
+     */
+	public void seekGame(long offset) {
+		data.position((int) offset);
+		inGame = false;
+		if (!nextGame())
+			throw new IllegalArgumentException("No game starts at offset " + offset + ".");
+	}
+
+    /**
+     * @brief moves to the next game of the log, skipping what is left of the current one
+     * @return true if the cursor is at the start of a game; false at the end of the log
+     * @throws IllegalArgumentException - if the log is corrupt
+     */
+	public boolean nextGame() {
+		while (inGame) {
+			nextRecord();
+		}
+		if (data.remaining() < 14)
+			return false;
+		gameOffset = data.position();
+		if (data.getInt() != ReplayWriter.MAGIC)
+			throw new IllegalArgumentException("Corrupt replay log: no game header at offset " + gameOffset + ".");
+		int version = data.get();
+		if (version != 1 && version != ReplayWriter.VERSION)
+			throw new IllegalArgumentException("Unsupported replay log version " + version + ".");
+		size = data.get();
+		if (size < BoardT.MIN_SIZE || size > BoardT.MAX_SIZE)
+			throw new IllegalArgumentException("Corrupt replay log: board size " + size + " at offset " + gameOffset + ".");
+		cellBits = ReplayWriter.cellBits(size);
+		seed = data.getLong();
+		if (version == 1) {
+			// version 1 had no table and spawned 2s and 4s
+			spawnTiles[0] = 2;
+			spawnTiles[1] = 4;
+			spawnTileCount = 2;
+		} else {
+			if (!data.hasRemaining() || data.remaining() < 1 + data.get(data.position())) {
+				// cut short in the header
+				data.position(data.limit());
+				return false;
+			}
+			spawnTileCount = data.get();
+			if (spawnTileCount < 1 || spawnTileCount > spawnTiles.length)
+				throw new IllegalArgumentException("Corrupt replay log: spawned tiles at offset " + gameOffset + ".");
+			for (int i = 0; i < spawnTileCount; i++) {
+				int exponent = data.get();
+				if (exponent < 1 || exponent > spawnTiles.length)
+					throw new IllegalArgumentException("Corrupt replay log: spawned tiles at offset " + gameOffset + ".");
+				spawnTiles[i] = 1 << exponent;
+			}
+		}
+		tileBits = ReplayWriter.tileBits(spawnTileCount);
+		blockStart = -1;
+		blockRecords = 0;
+		blockEnd = data.position() - ReplayWriter.BLOCK_TRAILER_BYTES;
+		inGame = true;
+		return true;
+	}
+
+    /**
+     * @brief moves back to a point of a game saved with getBlockStart, getBitPosition and getRecordsLeft
+     * @param gameOffset - the offset of the header of the game
+     * @param blockStart - the block the point is in, or -1 for the start of the game
+     * @param bitPosition - the number of payload bits of the block before the point
+     * @param recordsLeft - the number of records of the block after the point
+     * @throws IllegalArgumentException - if the log is corrupt
+     */
+	void resume(long gameOffset, int blockStart, int bitPosition, int recordsLeft) {
+		seekGame(gameOffset);
+		if (blockStart < 0)
+			return;
+		data.position(blockStart);
+		if (!readBlock())
+			throw new IllegalArgumentException("Corrupt replay log: no block at offset " + blockStart + ".");
+		data.position(blockStart + ReplayWriter.BLOCK_HEADER_BYTES + bitPosition / 8);
+		if (bitPosition % 8 > 0)
+			getBits(bitPosition % 8);
+		blockRecords = recordsLeft;
+	}
+
+    /**
+     * @brief gets the block the cursor is in
+     * @return the position of the block, or -1 before the first block of the game
+     */
+	int getBlockStart() {
+		return blockStart;
+	}
+
+    /**
+     * @brief gets the number of payload bits of the current block the cursor has read
+     * @return the bit position within the payload
+     */
+	int getBitPosition() {
+		return blockStart < 0 ? 0 : (data.position() - blockStart - ReplayWriter.BLOCK_HEADER_BYTES) * 8 - bitCount;
+	}
+
+    /**
+     * @brief gets the number of records of the current block the cursor has not read
+     * @return the records left
+     */
+	int getRecordsLeft() {
+		return blockRecords;
+	}
+
+    /**
+     * @brief moves to the next record of the current game
+     * @return true if the cursor is on a record; false at the end of the game
+     * @throws IllegalArgumentException - if the log is corrupt
+     */
+	public boolean nextRecord() {
+		if (!inGame)
+			return false;
+		if (blockRecords == 0 && !nextBlock()) {
+			inGame = false;
+			return false;
+		}
+		blockRecords--;
+		opcode = (int) getBits(ReplayWriter.OPCODE_BITS);
+		if (opcode == ReplayWriter.STATE) {
+			score = (int) getBits(ReplayWriter.SCORE_BITS);
+			for (int cell = 0; cell < size * size; cell++) {
+				exponents[cell] = (byte) getBits(ReplayWriter.EXPONENT_BITS);
+			}
+		} else if (opcode < MoveT.values().length) {
+			spawnCell = (int) getBits(cellBits);
+			int tile = (int) getBits(tileBits);
+			if (spawnCell >= size * size)
+				throw new IllegalArgumentException("Corrupt replay log: spawn outside the board in the game at offset " + gameOffset + ".");
+			if (tile >= spawnTileCount)
+				throw new IllegalArgumentException("Corrupt replay log: unknown spawned tile in the game at offset " + gameOffset + ".");
+			spawnTile = spawnTiles[tile];
+		} else {
+			throw new IllegalArgumentException("Corrupt replay log: unknown record in the game at offset " + gameOffset + ".");
+		}
+		return true;
+	}
+
+    /**
+     * @brief gets the offset of the header of the current game in the log
+     * @return the position of the header in the buffer the reader was created with
+     */
+	public long getGameOffset() {
+		return gameOffset;
+	}
+
+    /**
+     * @brief gets the number of rows and columns of the board of the current game
+     * @return the size of the board
+     */
+	public int getSize() {
+		return size;
+	}
+
+    /**
+     * @brief gets the seed of the current game
+     * @return the seed the tile spawner was reseeded with
+     */
+	public long getSeed() {
+		return seed;
+	}
+
+    /**
+     * @brief determines whether the current record holds a whole state
+     * @return true for a state; false for a move
+     */
+	public boolean isState() {
+		return opcode == ReplayWriter.STATE;
+	}
+
+    /**
+     * @brief gets the move of the current record
+     * @return the move made
+     * @throws UnsupportedOperationException - if the record is a state
+     */
+	public MoveT getMove() {
+		if (isState())
+			throw new UnsupportedOperationException("A state record holds no move.");
+		return MoveT.values()[opcode];
+	}
+
+    /**
+     * @brief gets the cell of the tile spawned after the move of the current record
+     * @return the index (x * size + y) of the cell
+     */
+	public int getSpawnCell() {
+		return spawnCell;
+	}
+
+    /**
+     * @brief gets the value of the tile spawned after the move of the current record
+     * @return one of the tiles of the header of the game
+     */
+	public int getSpawnTile() {
+		return spawnTile;
+	}
+
+    /**
+     * @brief gets the score of the current state record
+     * @return the score
+     */
+	public int getScore() {
+		return score;
+	}
+
+    /**
+     * @brief gets the exponents of the current state record
+     * @return the exponent of every cell, indexed by x * size + y; overwritten by the next state record
+     */
+	public byte[] getExponents() {
+		return exponents;
+	}
+
+    /**
+     * @brief verifies the next block of the current game and starts decoding it
+     * @return false if the game ended or the log was cut short
+     */
+	private boolean nextBlock() {
+		data.position(blockEnd + ReplayWriter.BLOCK_TRAILER_BYTES);
+		return readBlock();
+	}
+
+    /**
+     * @brief verifies the block at the position of the cursor and starts decoding it
+     * @return false if the block ends the game or the log was cut short
+     */
+	private boolean readBlock() {
+		int start = data.position();
+		if (data.remaining() < ReplayWriter.BLOCK_HEADER_BYTES + ReplayWriter.BLOCK_TRAILER_BYTES) {
+			data.position(data.limit());
+			return false;
+		}
+		int records = data.getInt();
+		int length = data.getInt();
+		if (records < 0 || length < 0)
+			throw new IllegalArgumentException("Corrupt replay log: block header at offset " + start + ".");
+		if (data.remaining() < length + ReplayWriter.BLOCK_TRAILER_BYTES) {
+			data.position(data.limit());
+			return false;
+		}
+		blockEnd = start + ReplayWriter.BLOCK_HEADER_BYTES + length;
+		checked.limit(blockEnd).position(start);
+		crc.reset();
+		crc.update(checked);
+		if ((int) crc.getValue() != data.getInt(blockEnd))
+			throw new IllegalArgumentException("Corrupt replay log: checksum mismatch in the block at offset " + start + ".");
+		if (records == 0) {
+			data.position(blockEnd + ReplayWriter.BLOCK_TRAILER_BYTES);
+			return false;
+		}
+		blockStart = start;
+		blockRecords = records;
+		bits = 0;
+		bitCount = 0;
+		return true;
+	}
+
+    /**
+     * @brief decodes the next bits of the current block
+     */
+	private long getBits(int count) {
+		while (bitCount < count) {
+			if (data.position() >= blockEnd)
+				throw new IllegalArgumentException("Corrupt replay log: record past the end of its block in the game at offset " + gameOffset + ".");
+			bits |= (long) (data.get() & 0xFF) << bitCount;
+			bitCount += 8;
+		}
+		long value = bits & ((1L << count) - 1);
+		bits >>>= count;
+		bitCount -= count;
+		return value;
+	}
+}
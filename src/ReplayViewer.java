@@ -0,0 +1,167 @@
+/**
+ * @File: ReplayViewer.java
+ * @Description: shows recorded games in the game view, with a slider seeking to any record
+ */
+
+package src;
+
+// Import java libraries
+import java.awt.event.KeyEvent;
+import java.awt.event.KeyListener;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import javax.swing.SwingUtilities;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+/**
+ * @brief Drives a GameUI in replay mode over the games of a replay log
+ * @details Runs on the Swing event thread. The log is memory-mapped and sought through its
+ * ReplayIndex, so moving the slider to any record restores the keyframe before it and replays
+ * fewer than interval records, however long the game. Stepping forward by one record animates
+ * the move. Right and Left step through the game, Home and End jump to its ends, and Page Down
+ * and Page Up switch to the next and the previous game of the log.
+ */
+public class ReplayViewer implements KeyListener, ChangeListener {
+
+	// State Variables
+	private final GameUI game;
+	private final ReplayIndex index;
+	private final ReplayPlayer player;
+	private final MoveDescription move = new MoveDescription();
+	private int current; // index of the game shown
+	private int step;    // records of the game applied to the board shown
+
+    /**
+     * @brief constructor
+     * @param game - the game view to switch to replay mode
+     * @param index - the index of the log
+     * @param data - the whole log, typically mapped with ReplayPlayer.map
+     * @throws IllegalArgumentException - if the log holds no game
+     */
+	public ReplayViewer(GameUI game, ReplayIndex index, ByteBuffer data) {
+		if (index.getGameCount() == 0)
+			throw new IllegalArgumentException("The replay log holds no game.");
+		this.game = game;
+		this.index = index;
+		player = new ReplayPlayer(new ReplayReader(data));
+		player.getBoard().setMoveDescription(move);
+		game.addKeyListener(this);
+		game.getReplaySlider().addChangeListener(this);
+	}
+
+    /**
+     * @brief shows a game of the log after its first record
+     * @param gameIndex - the index of the game
+     * @throws IndexOutOfBoundsException - if there is no such game
+     */
+	public void showGame(int gameIndex) {
+		int records = index.getRecordCount(gameIndex);
+		current = gameIndex;
+		step = -1;
+		game.showReplay(index.getSize(gameIndex), records);
+		seek(Math.min(1, records));
+	}
+
+    /**
+     * @brief shows the board after a record of the current game
+     * @param target - the number of records to apply, clamped to the game
+     */
+	public void seek(int target) {
+		int records = index.getRecordCount(current);
+		target = Math.max(0, Math.min(records, target));
+		if (target == step)
+			return;
+		boolean animated = false;
+		if (target == step + 1) {
+			player.step();
+			animated = !player.getReader().isState();
+		} else {
+			player.seek(index, current, target);
+		}
+		step = target;
+		BoardT board = player.getBoard();
+		if (animated)
+			game.updateGrid(board.getBoard(), board.getScore(), move);
+		else
+			game.updateGrid(board.getBoard(), board.getScore());
+		game.setReplayPosition(step, "Game " + (current + 1) + "/" + index.getGameCount() + "   Record " + step + "/" + records);
+	}
+
+    /**
+     * @brief seeks to the record the slider was moved to
+     * @param e - the change event of the slider
+     */
+	@Override
+	public void stateChanged(ChangeEvent e) {
+		seek(game.getReplaySlider().getValue());
+	}
+
+    /**
+     * @brief steps through the game and switches games with the keyboard
+     * @param e - the key event
+     */
+	@Override
+	public void keyPressed(KeyEvent e) {
+		switch (e.getKeyCode()) {
+		case KeyEvent.VK_RIGHT:
+			seek(step + 1);
+			break;
+		case KeyEvent.VK_LEFT:
+			seek(step - 1);
+			break;
+		case KeyEvent.VK_HOME:
+			seek(0);
+			break;
+		case KeyEvent.VK_END:
+			seek(index.getRecordCount(current));
+			break;
+		case KeyEvent.VK_PAGE_DOWN:
+			if (current + 1 < index.getGameCount())
+				showGame(current + 1);
+			break;
+		case KeyEvent.VK_PAGE_UP:
+			if (current > 0)
+				showGame(current - 1);
+			break;
+		default:
+			break;
+		}
+	}
+
+	@Override
+	public void keyReleased(KeyEvent e) {
+		// Not used
+	}
+
+	@Override
+	public void keyTyped(KeyEvent e) {
+		// Not used
+	}
+
+    /**
+     * @brief opens a replay log in the game view
+     * @details builds the index of the log next to it on first use
+     * @param args - the file of the log, the number of the game to show first (default 1) and the keyframe interval
+     * @throws IOException - if the log or its index cannot be read or the index cannot be written
+     */
+	public static void main(String[] args) throws IOException {
+		if (args.length == 0) {
+			System.err.println("usage: ReplayViewer <log> [game] [interval]");
+			System.exit(2);
+		}
+		Path log = Paths.get(args[0]);
+		int first = args.length > 1 ? Integer.parseInt(args[1]) - 1 : 0;
+		int interval = args.length > 2 ? Integer.parseInt(args[2]) : ReplayIndex.DEFAULT_INTERVAL;
+		ByteBuffer data = ReplayPlayer.map(log);
+		ReplayIndex index = ReplayIndex.open(log, data, interval);
+		SwingUtilities.invokeLater(() -> {
+			GameUI game = new GameUI();
+			ReplayViewer viewer = new ReplayViewer(game, index, data);
+			viewer.showGame(first);
+			game.setVisible(true);
+		});
+	}
+}
@@ -0,0 +1,411 @@
+/**
+ * @File: ReplayWriter.java
+ * @Description: records games into a compact binary replay log, written by a background thread
+ */
+
+package src;
+
+// Import java libraries
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.CRC32C;
+
+/**
+ * @brief An append-only log of games
+ * @details The log is a sequence of games. A game is a header (the int MAGIC, the byte VERSION,
+ * the byte board size, the long seed, the byte number of tiles the spawner of the game can spawn
+ * and the byte exponent of each, big-endian) followed by blocks. A block holds the int
+ * number of its records, the int number of payload bytes, the payload and the CRC32C of all of
+ * them; a block of no records ends the game. Records are bit-packed into the payload, least
+ * significant bit first, and start with a 3-bit opcode:
+ * - 0 to 3, the ordinal of the MoveT made, followed by the cell of the tile spawned after it
+ *   (enough bits for size * size cells) and the index of the spawned tile in the table of the
+ *   header (enough bits for its tiles, none for a single tile);
+ * - STATE, followed by the 32-bit score and the 5-bit exponent of every cell, recorded when a
+ *   game starts and after an undo or a redo.
+ * A move on a 4x4 board with a spawner of 2s and 4s takes one byte. Version 1 logs, which had no
+ * table and always spawned 2s and 4s, are still read. Records are encoded on the thread playing the game into
+ * blocks of about BLOCK_BYTES, which are handed to a writer thread that gathers them into channel
+ * writes and returns the buffers for reuse, so recording never waits for the disk and stops
+ * allocating once enough buffers are in circulation. A log is capped at MAX_LOG_BYTES, the most
+ * ReplayPlayer.map can map in one buffer: once the cap is reached the following records are
+ * dropped, the log ends at its last whole block and close reports it; a long session rolls over
+ * to a new log with Controller.setReplayWriter before then, checking getLength.
+ */
+public class ReplayWriter implements Closeable {
+
+	// Marks the start of a game ("2048") and the version of the format
+	static final int MAGIC = 0x32303438;
+	static final int VERSION = 2;
+
+	// Record layout
+	static final int OPCODE_BITS = 3;
+	static final int STATE = 4;
+	static final int SCORE_BITS = 32;
+	static final int EXPONENT_BITS = 5;
+
+	// Bytes around the payload of a block, and payload bytes after which a block is sealed
+	static final int BLOCK_HEADER_BYTES = 8;
+	static final int BLOCK_TRAILER_BYTES = 4;
+	static final int BLOCK_BYTES = 4096;
+
+	// Bytes a log may hold, the capacity of a single mapped buffer
+	public static final long MAX_LOG_BYTES = Integer.MAX_VALUE;
+
+	// Room for a record, a sealed block, an ending block and the header of the next game past BLOCK_BYTES
+	private static final int BUFFER_BYTES = BLOCK_BYTES + 256;
+
+	// Handed to the writer thread to stop it
+	private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+	// State Variables
+	private final FileChannel channel;
+	private final BlockingQueue<ByteBuffer> pending = new LinkedBlockingQueue<>();
+	private final ConcurrentLinkedQueue<ByteBuffer> free = new ConcurrentLinkedQueue<>();
+	private final Thread thread;
+	private volatile IOException failure;
+	private long length;  // bytes handed to the writer thread
+	private boolean full; // true once a buffer was dropped for the cap
+	private final CRC32C crc = new CRC32C();
+	private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+	private int blockStart; // position of the header of the open block in the buffer
+	private int records;    // records in the open block
+	private long bits;      // encoded bits not yet in the buffer
+	private int bitCount;
+	private int size;
+	private int cellBits;
+	private final int[] spawnTiles = new int[30]; // the table of the game; a power of two int is at most 2^30
+	private int spawnTileCount;
+	private int tileBits;
+	private boolean inGame;
+	private boolean closed;
+
+    /**
+     * @brief constructor, creating or truncating the log and starting the writer thread
+     * @param path - the file of the log
+     * @throws IOException - if the file cannot be opened
+     */
+	public ReplayWriter(Path path) throws IOException {
+		channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		thread = new Thread(this::run, "replay-writer");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+    /**
+     * @brief gets the number of bits encoding the cell of a spawned tile
+     * @param size - the number of rows and columns of the board
+     * @return the bits needed for size * size cells
+     */
+	static int cellBits(int size) {
+		return 32 - Integer.numberOfLeadingZeros(size * size - 1);
+	}
+
+    /**
+     * @brief gets the number of bits encoding the index of a spawned tile in the table of a game
+     * @param tiles - the number of tiles in the table
+     * @return the bits needed for the indices, 0 for a single tile
+     */
+	static int tileBits(int tiles) {
+		return 32 - Integer.numberOfLeadingZeros(tiles - 1);
+	}
+
+    /**
+     * @brief ends the game being recorded, if any, and starts recording a new one
+     * @param size - the number of rows and columns of the board
+     * @param seed - the seed the tile spawner was reseeded with
+     * @param tiles - the tiles the spawner of the game can spawn, as returned by TileSpawner.getTiles
+     * @throws IllegalArgumentException - if the size is not between BoardT.MIN_SIZE and BoardT.MAX_SIZE,
+     * there is no tile or a tile is not a power of two above 1
+     */
+	public synchronized void startGame(int size, long seed, int[] tiles) {
+		if (size < BoardT.MIN_SIZE || size > BoardT.MAX_SIZE)
+			throw new IllegalArgumentException("Board size must be between " + BoardT.MIN_SIZE + " and " + BoardT.MAX_SIZE + ".");
+		if (tiles.length == 0)
+			throw new IllegalArgumentException("At least one spawned tile is required.");
+		for (int tile : tiles) {
+			if (tile < 2 || (tile & (tile - 1)) != 0)
+				throw new IllegalArgumentException("Spawned tiles must be powers of two.");
+		}
+		if (closed)
+			return;
+		endGame();
+		this.size = size;
+		cellBits = cellBits(size);
+		spawnTileCount = 0;
+		for (int tile : tiles) {
+			if (indexOf(tile) < 0)
+				spawnTiles[spawnTileCount++] = tile;
+		}
+		tileBits = tileBits(spawnTileCount);
+		buffer.putInt(MAGIC).put((byte) VERSION).put((byte) size).putLong(seed).put((byte) spawnTileCount);
+		for (int i = 0; i < spawnTileCount; i++) {
+			buffer.put((byte) Integer.numberOfTrailingZeros(spawnTiles[i]));
+		}
+		openBlock();
+		inGame = true;
+	}
+
+    /**
+     * @brief records the whole state of the game
+     * @param board - the tile values, size rows of size columns
+     * @param score - the score
+     * @throws IllegalArgumentException - if the board is not of the size of the game
+     * @throws IllegalStateException - if no game was started
+     */
+	public synchronized void recordState(int[][] board, int score) {
+		checkGame();
+		if (board.length != size)
+			throw new IllegalArgumentException("The board does not have the size of the recorded game.");
+		if (closed)
+			return;
+		putBits(STATE, OPCODE_BITS);
+		putBits(score & 0xFFFFFFFFL, SCORE_BITS);
+		for (int[] row : board) {
+			for (int tile : row) {
+				putBits(tile == 0 ? 0 : Integer.numberOfTrailingZeros(tile), EXPONENT_BITS);
+			}
+		}
+		endRecord();
+	}
+
+    /**
+     * @brief records a move and the tile spawned after it
+     * @param move - the move made
+     * @param cell - the index (x * size + y) of the cell of the spawned tile
+     * @param tile - the spawned tile value
+     * @throws IllegalArgumentException - if the tile is not one of those the game was started with
+     * @throws IllegalStateException - if no game was started
+     */
+	public synchronized void recordMove(MoveT move, int cell, int tile) {
+		checkGame();
+		if (closed)
+			return;
+		int index = indexOf(tile);
+		if (index < 0)
+			throw new IllegalArgumentException("The game was not started with a spawner of " + tile + "s.");
+		putBits(move.ordinal(), OPCODE_BITS);
+		putBits(cell, cellBits);
+		putBits(index, tileBits);
+		endRecord();
+	}
+
+    /**
+     * @brief determines whether a game is being recorded
+     * @return true between startGame and endGame; false otherwise
+     */
+	public synchronized boolean isRecordingGame() {
+		return inGame;
+	}
+
+    /**
+     * @brief gets the number of bytes recorded so far, including those not written yet
+     * @return the length the log will have, up to MAX_LOG_BYTES
+     */
+	public synchronized long getLength() {
+		return full ? length : length + buffer.position();
+	}
+
+    /**
+     * @brief ends the game being recorded, if any
+     */
+	public synchronized void endGame() {
+		if (!inGame || closed)
+			return;
+		if (records > 0) {
+			sealBlock();
+			openBlock();
+		}
+		sealBlock();
+		inGame = false;
+		if (buffer.position() >= BLOCK_BYTES)
+			handOff();
+	}
+
+    /**
+     * @brief hands everything recorded so far to the writer thread, without waiting for it to be written
+     * @details the open block is sealed, unless it is empty, and a new one continues the game
+     */
+	public synchronized void flush() {
+		if (closed)
+			return;
+		if (inGame && records > 0)
+			sealBlock();
+		else if (inGame)
+			buffer.position(blockStart);
+		if (buffer.position() > 0)
+			handOff();
+		if (inGame)
+			openBlock();
+	}
+
+    /**
+     * @brief ends the game being recorded, waits for the writer thread to write everything and closes the log
+     * @throws IOException - if writing the log failed at any point
+     */
+	@Override
+	public synchronized void close() throws IOException {
+		if (closed)
+			return;
+		endGame();
+		closed = true;
+		if (buffer.position() > 0)
+			handOff();
+		pending.add(END);
+		boolean interrupted = false;
+		while (thread.isAlive()) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+		try {
+			channel.close();
+		} catch (IOException e) {
+			if (failure == null)
+				failure = e;
+		}
+		if (failure != null)
+			throw failure;
+		if (full)
+			throw new IOException("The replay log reached its cap of " + MAX_LOG_BYTES + " bytes; the records after it were dropped.");
+	}
+
+    /**
+     * @brief throws if no game is being recorded
+     */
+	private void checkGame() {
+		if (!inGame && !closed)
+			throw new IllegalStateException("No game is being recorded.");
+	}
+
+    /**
+     * @brief gets the index of a tile in the table of the game, or -1 if it is not there
+     */
+	private int indexOf(int tile) {
+		for (int i = 0; i < spawnTileCount; i++) {
+			if (spawnTiles[i] == tile)
+				return i;
+		}
+		return -1;
+	}
+
+    /**
+     * @brief appends the low bits of a value to the open block
+     */
+	private void putBits(long value, int count) {
+		bits |= (value & ((1L << count) - 1)) << bitCount;
+		bitCount += count;
+		while (bitCount >= 8) {
+			buffer.put((byte) bits);
+			bits >>>= 8;
+			bitCount -= 8;
+		}
+	}
+
+    /**
+     * @brief counts a record and seals the open block once it is full
+     */
+	private void endRecord() {
+		records++;
+		if (buffer.position() >= BLOCK_BYTES) {
+			sealBlock();
+			handOff();
+			openBlock();
+		}
+	}
+
+    /**
+     * @brief reserves the header of a new block
+     */
+	private void openBlock() {
+		blockStart = buffer.position();
+		buffer.position(blockStart + BLOCK_HEADER_BYTES);
+		records = 0;
+		bits = 0;
+		bitCount = 0;
+	}
+
+    /**
+     * @brief pads the open block to a whole byte and writes its header and checksum
+     */
+	private void sealBlock() {
+		if (bitCount > 0)
+			buffer.put((byte) bits);
+		bits = 0;
+		bitCount = 0;
+		int end = buffer.position();
+		buffer.putInt(blockStart, records);
+		buffer.putInt(blockStart + 4, end - blockStart - BLOCK_HEADER_BYTES);
+		crc.reset();
+		crc.update(buffer.array(), blockStart, end - blockStart);
+		buffer.putInt((int) crc.getValue());
+	}
+
+    /**
+     * @brief hands the buffer to the writer thread and takes a written one back, or a new one if none is free
+     * @details a buffer that would take the log past MAX_LOG_BYTES is dropped, and so are all the following ones
+     */
+	private void handOff() {
+		buffer.flip();
+		if (full || length + buffer.remaining() > MAX_LOG_BYTES) {
+			full = true;
+			buffer.clear();
+			return;
+		}
+		length += buffer.remaining();
+		pending.add(buffer);
+		buffer = free.poll();
+		if (buffer == null)
+			buffer = ByteBuffer.allocate(BUFFER_BYTES);
+	}
+
+    /**
+     * @brief writes the buffers handed off until close, gathering those waiting into one write
+     * @details after a failed write the following buffers are dropped, so recording keeps going; close reports the failure
+     */
+	private void run() {
+		List<ByteBuffer> batch = new ArrayList<>();
+		boolean done = false;
+		while (!done) {
+			try {
+				batch.add(pending.take());
+			} catch (InterruptedException e) {
+				continue;
+			}
+			pending.drainTo(batch);
+			if (batch.get(batch.size() - 1) == END) {
+				batch.remove(batch.size() - 1);
+				done = true;
+			}
+			if (failure == null && !batch.isEmpty()) {
+				ByteBuffer[] buffers = batch.toArray(new ByteBuffer[0]);
+				try {
+					while (buffers[buffers.length - 1].hasRemaining()) {
+						channel.write(buffers);
+					}
+				} catch (IOException e) {
+					failure = e;
+				}
+			}
+			for (ByteBuffer written : batch) {
+				written.clear();
+				free.add(written);
+			}
+			batch.clear();
+		}
+	}
+}
@@ -0,0 +1,153 @@
+/**
+ * @File: SimulationReport.java
+ * @Description: accumulates the statistics of games played by the Simulator
+ */
+
+package src;
+
+/**
+ * @brief An ADT holding the throughput and the outcome distributions of simulated games
+ * @details Each simulation worker fills its own report, which are then merged with add
+ */
+public class SimulationReport {
+
+	// Scores are bucketed in steps of SCORE_BUCKET; higher scores fall into the last bucket
+	private static final int SCORE_BUCKET = 256;
+	private static final int SCORE_BUCKETS = 4096;
+
+	// State Variables
+	private long games;
+	private long moves;
+	private long elapsedNanos;
+	private long totalScore;
+	private int minScore = Integer.MAX_VALUE;
+	private int maxScore;
+	private final long[] scoreCounts = new long[SCORE_BUCKETS];
+	private final long[] maxTileCounts = new long[32];
+
+    /**
+     * @brief records a finished game
+     * @param score - the final score
+     * @param maxTile - the highest tile on the final board
+     * @param gameMoves - the number of moves played
+     */
+	public void addGame(int score, int maxTile, long gameMoves) {
+		games++;
+		moves += gameMoves;
+		totalScore += score;
+		minScore = Math.min(minScore, score);
+		maxScore = Math.max(maxScore, score);
+		scoreCounts[Math.min(score / SCORE_BUCKET, SCORE_BUCKETS - 1)]++;
+		maxTileCounts[maxTile == 0 ? 0 : Integer.numberOfTrailingZeros(maxTile)]++;
+	}
+
+    /**
+     * @brief merges the statistics of another report into this one
+     * @param other - a report to be merged
+     */
+	public void add(SimulationReport other) {
+		games += other.games;
+		moves += other.moves;
+		totalScore += other.totalScore;
+		minScore = Math.min(minScore, other.minScore);
+		maxScore = Math.max(maxScore, other.maxScore);
+		for (int i = 0; i < SCORE_BUCKETS; i++)
+			scoreCounts[i] += other.scoreCounts[i];
+		for (int i = 0; i < maxTileCounts.length; i++)
+			maxTileCounts[i] += other.maxTileCounts[i];
+	}
+
+    /**
+     * @brief sets the wall clock time the simulation took
+     * @param elapsedNanos - elapsed time in nanoseconds
+     */
+	public void setElapsedNanos(long elapsedNanos) {
+		this.elapsedNanos = elapsedNanos;
+	}
+
+    /**
+     * @brief gets the number of games played
+     * @return the number of games
+     */
+	public long getGames() {
+		return games;
+	}
+
+    /**
+     * @brief gets the number of moves played over all games
+     * @return the number of moves
+     */
+	public long getMoves() {
+		return moves;
+	}
+
+    /**
+     * @brief gets the number of games finished per second of wall clock time
+     * @return games per second
+     */
+	public double getGamesPerSecond() {
+		return elapsedNanos == 0 ? 0 : games * 1e9 / elapsedNanos;
+	}
+
+    /**
+     * @brief gets the number of moves played per second of wall clock time
+     * @return moves per second
+     */
+	public double getMovesPerSecond() {
+		return elapsedNanos == 0 ? 0 : moves * 1e9 / elapsedNanos;
+	}
+
+    /**
+     * @brief gets the mean final score
+     * @return the mean score; 0 if no game was played
+     */
+	public double getMeanScore() {
+		return games == 0 ? 0 : (double) totalScore / games;
+	}
+
+    /**
+     * @brief estimates a percentile of the final scores
+     * @param percentile - a percentile between 0 and 100
+     * @return the upper bound of the score bucket holding the percentile
+     */
+	public int getScorePercentile(double percentile) {
+		long rank = (long) Math.ceil(games * percentile / 100.0);
+		long seen = 0;
+		for (int i = 0; i < SCORE_BUCKETS - 1; i++) {
+			seen += scoreCounts[i];
+			if (seen >= rank && seen > 0)
+				return Math.min((i + 1) * SCORE_BUCKET - 1, maxScore);
+		}
+		return maxScore;
+	}
+
+    /**
+     * @brief gets the number of games that finished with a given highest tile
+     * @param tile - a tile value
+     * @return the number of games whose highest tile was the given tile
+     */
+	public long getMaxTileCount(int tile) {
+		return tile == 0 ? maxTileCounts[0] : maxTileCounts[Integer.numberOfTrailingZeros(tile)];
+	}
+
+    /**
+     * @brief formats the report for printing
+     * @return a human readable summary
+     */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("games: %d, moves: %d, time: %.3f s%n", games, moves, elapsedNanos / 1e9));
+		sb.append(String.format("games/sec: %.1f, moves/sec: %.1f%n", getGamesPerSecond(), getMovesPerSecond()));
+		if (games == 0)
+			return sb.toString();
+		sb.append(String.format("score: min %d, mean %.1f, p50 %d, p90 %d, p99 %d, max %d%n", minScore,
+				getMeanScore(), getScorePercentile(50), getScorePercentile(90), getScorePercentile(99), maxScore));
+		sb.append("max tile:");
+		for (int i = 0; i < maxTileCounts.length; i++) {
+			if (maxTileCounts[i] != 0)
+				sb.append(String.format(" %d: %.2f%%", i == 0 ? 0 : 1 << i, 100.0 * maxTileCounts[i] / games));
+		}
+		return sb.append(System.lineSeparator()).toString();
+	}
+}
@@ -0,0 +1,162 @@
+/**
+ * @File: Simulator.java
+ * @Description: plays games in bulk without a user interface (headless client code)
+ */
+
+package src;
+
+// Import java libraries
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * @brief Plays a number of games with a MovePolicy across a fork/join pool
+ * @details Every worker owns one board and one policy which it resets and reuses for each game.
+ * Workers claim games in batches from a shared counter, so the only shared state is that counter
+ * and the reports are merged once all workers are done. Game i reseeds the spawner of the board
+ * and the policy from TileSpawner.seedFor(seed, i), so a run is reproduced exactly whatever the
+ * number of threads.
+ */
+public class Simulator {
+
+	// Number of games a worker claims at once
+	private static final long BATCH = 64;
+
+	// State Variables
+	private final Supplier<GameBoard> boardFactory;
+	private final Supplier<MovePolicy> policyFactory;
+	private final int threads;
+	private final boolean stopAtWin;
+	private final long seed;
+
+    /**
+     * @brief constructor
+     * @param boardFactory - creates the board engine of each worker
+     * @param policyFactory - creates the move policy of each worker, on the thread of the worker; a policy
+     * splitting its search should use the pool of the workers, ForkJoinTask.getPool(), so that threads
+     * bounds the parallelism of the whole run
+     * @param threads - the number of worker threads
+     * @param stopAtWin - true to finish a game once it is won, like the Controller does; false to play on
+     * @param seed - the root seed the seed of each game is derived from
+     */
+	public Simulator(Supplier<GameBoard> boardFactory, Supplier<MovePolicy> policyFactory, int threads,
+			boolean stopAtWin, long seed) {
+		if (threads < 1)
+			throw new IllegalArgumentException("At least one worker thread is required.");
+		this.boardFactory = boardFactory;
+		this.policyFactory = policyFactory;
+		this.threads = threads;
+		this.stopAtWin = stopAtWin;
+		this.seed = seed;
+	}
+
+    /**
+     * @brief plays a given number of games
+     * @param games - the number of games to be played
+     * @return the merged report of all workers
+     */
+	public SimulationReport run(long games) {
+		AtomicLong next = new AtomicLong();
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			long start = System.nanoTime();
+			List<ForkJoinTask<SimulationReport>> workers = new ArrayList<>();
+			for (int i = 0; i < threads; i++) {
+				workers.add(pool.submit(() -> playGames(next, games)));
+			}
+			SimulationReport report = new SimulationReport();
+			for (ForkJoinTask<SimulationReport> worker : workers) {
+				report.add(worker.join());
+			}
+			report.setElapsedNanos(System.nanoTime() - start);
+			return report;
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+    /**
+     * @brief claims and plays batches of games until all games are played
+     * @param next - the index of the next unclaimed game
+     * @param games - the total number of games
+     * @return the report of this worker
+     */
+	private SimulationReport playGames(AtomicLong next, long games) {
+		GameBoard board = boardFactory.get();
+		MovePolicy policy = policyFactory.get();
+		SimulationReport report = new SimulationReport();
+		long first;
+		while ((first = next.getAndAdd(BATCH)) < games) {
+			long last = Math.min(first + BATCH, games);
+			for (long game = first; game < last; game++) {
+				long gameSeed = TileSpawner.seedFor(seed, game);
+				board.getSpawner().reseed(gameSeed);
+				policy.newGame(TileSpawner.seedFor(gameSeed, 0));
+				playGame(board, policy, report);
+			}
+		}
+		return report;
+	}
+
+    /**
+     * @brief plays a single game on a reused board
+     * @param board - the board of the worker
+     * @param policy - the move policy of the worker
+     * @param report - the report of the worker
+     */
+	private void playGame(GameBoard board, MovePolicy policy, SimulationReport report) {
+		board.reset();
+		populateRandomCell(board);
+		populateRandomCell(board);
+		long moves = 0;
+		while (board.getStatus()) {
+			MoveT move = policy.chooseMove(board);
+			if (move == null || !board.applyMove(move).isChanged())
+				break;
+			moves++;
+			populateRandomCell(board);
+			if (stopAtWin && board.isWinner())
+				board.setStatus(false);
+			else if (board.isBoardFull() && !board.isAnyValidMove())
+				board.setStatus(false);
+		}
+		report.addGame(board.getScore(), board.getMaxTile(), moves);
+	}
+
+    /**
+     * @brief generates and populates a random tile at randomly selected unoccupied board cell
+     */
+	private static void populateRandomCell(GameBoard board) {
+		int cell = board.generateRandomFreeCell();
+		int tile = board.generateRandomTile();
+		board.setCell(cell / board.getSize(), cell % board.getSize(), tile);
+	}
+
+    /**
+     * @brief plays games from the command line and prints the report
+     * @param args - number of games, number of threads (default: all cores), engine ("board" or "bitboard"),
+     * policy ("random" or "expectimax"), the expectimax budget per move in milliseconds and the root seed
+     */
+	public static void main(String[] args) {
+		long games = args.length > 0 ? Long.parseLong(args[0]) : 100000;
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		boolean bitboard = args.length > 2 && args[2].equals("bitboard");
+		boolean expectimax = args.length > 3 && args[3].equals("expectimax");
+		long budgetNanos = (args.length > 4 ? Long.parseLong(args[4]) : 2) * 1000000L;
+		long seed = args.length > 5 ? Long.parseLong(args[5]) : System.nanoTime();
+		TranspositionCache cache = expectimax ? new TranspositionCache(256L << 20, threads) : null;
+		Supplier<MovePolicy> policy = expectimax
+				? () -> new ExpectimaxSolver(ForkJoinTask.getPool(), budgetNanos, cache)
+				: () -> new RandomPolicy(seed);
+		Simulator simulator = new Simulator(bitboard ? BitBoardT::new : BoardT::new, policy, threads, false, seed);
+		System.out.print(simulator.run(games));
+		System.out.println("seed: " + seed);
+		if (cache != null)
+			System.out.printf("cache: %d hits, %d misses, %d evictions%n", cache.getHits(), cache.getMisses(),
+					cache.getEvictions());
+	}
+}
@@ -0,0 +1,355 @@
+/**
+ * @File: SpectatorBroadcaster.java
+ * @Description: streams a live game to spectators as delta frames, from a single NIO selector thread
+ */
+
+package src;
+
+// Import java libraries
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @brief Broadcasts the board of a game to any number of spectators over TCP
+ * @details The thread playing the game publishes the board after every change. Publishing copies
+ * the board into a triple buffer and wakes the broadcaster thread at most once per batch. It never
+ * locks, allocates or touches a socket. The broadcaster thread diffs the latest board against the
+ * last one it sent and encodes one frame into a shared direct buffer, written to every spectator
+ * with non-blocking writes. Boards published faster than they are sent are merged into one delta.
+ *
+ * Frames are big-endian and start with an 11-byte header: the byte type, a byte count, the byte
+ * status (PLAYING, WON or LOST), the int number of the frame and an int score.
+ * - SNAPSHOT: the count is the board size and the score is the score; size * size exponent bytes
+ *   follow, cells indexed by x * size + y, 0 for an empty cell.
+ * - DELTA: the count is the number of changed cells and the score is the change of score; a cell
+ *   byte and an exponent byte follow per changed cell.
+ * A spectator gets a snapshot when it connects and after any frame it could not take whole. Once
+ * its socket buffer is full, the rest of the frame is kept aside, the following frames are skipped,
+ * and a snapshot is sent when the rest has drained. Every delta it receives therefore applies to
+ * the frame before it.
+ */
+public class SpectatorBroadcaster implements Closeable {
+
+	// Frame types
+	public static final byte SNAPSHOT = 1;
+	public static final byte DELTA = 2;
+
+	// Game statuses
+	public static final byte PLAYING = 0;
+	public static final byte WON = 1;
+	public static final byte LOST = 2;
+
+	static final int HEADER_BYTES = 11;
+	static final int MAX_FRAME_BYTES = HEADER_BYTES + 2 * BoardT.MAX_SIZE * BoardT.MAX_SIZE;
+
+	// Socket send buffer of a spectator: over a thousand 4x4 deltas, rather than the megabytes the
+	// kernel grows it to, so a stalled spectator is caught up with a snapshot instead of a backlog
+	static final int SEND_BUFFER_BYTES = 32 * 1024;
+
+	// Middle slot of the triple buffer: the index of a board, flagged when not yet broadcast
+	private static final int INDEX = 3;
+	private static final int FRESH = 4;
+
+	/**
+	 * @brief A board as seen by spectators
+	 */
+	private static final class Board {
+		private final byte[] exponents = new byte[BoardT.MAX_SIZE * BoardT.MAX_SIZE];
+		private int size;
+		private int score;
+		private byte status;
+
+		private void copyFrom(Board other) {
+			size = other.size;
+			score = other.score;
+			status = other.status;
+			System.arraycopy(other.exponents, 0, exponents, 0, size * size);
+		}
+	}
+
+	/**
+	 * @brief A connected spectator
+	 */
+	private static final class Spectator {
+		private final ByteBuffer unsent = ByteBuffer.allocate(MAX_FRAME_BYTES).limit(0);
+		private boolean behind; // a frame was skipped, so the next one must be a snapshot
+	}
+
+	// State Variables
+	private final ServerSocketChannel server;
+	private final Selector selector;
+	private final Thread thread;
+	private final Board[] boards = { new Board(), new Board(), new Board() };
+	private final AtomicInteger middle = new AtomicInteger(2);
+	private final AtomicBoolean signalled = new AtomicBoolean();
+	private int back = 0;  // written by the publishing thread
+	private int front = 1; // read by the broadcaster thread
+	private final Board sent = new Board();
+	private final ByteBuffer frame = ByteBuffer.allocateDirect(MAX_FRAME_BYTES);
+	private final ByteBuffer snapshot = ByteBuffer.allocateDirect(MAX_FRAME_BYTES);
+	private final ByteBuffer discarded = ByteBuffer.allocateDirect(256);
+	private boolean snapshotCurrent;
+	private int frames;
+	private volatile int spectators;
+	private volatile boolean open = true;
+
+    /**
+     * @brief constructor, listening for spectators and starting the broadcaster thread
+     * @param address - the address to listen on; port 0 picks a free port
+     * @throws IOException - if the address cannot be bound
+     */
+	public SpectatorBroadcaster(InetSocketAddress address) throws IOException {
+		selector = Selector.open();
+		server = ServerSocketChannel.open();
+		server.bind(address);
+		server.configureBlocking(false);
+		server.register(selector, SelectionKey.OP_ACCEPT);
+		thread = new Thread(this::run, "spectators");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+    /**
+     * @brief publishes the board of the game to the spectators
+     * @details called by the thread playing the game after every change of the board; never blocks
+     * @param model - the board
+     */
+	public void publish(GameBoard model) {
+		Board board = boards[back];
+		int size = model.getSize();
+		int[][] grid = model.getBoard();
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				int tile = grid[i][j];
+				board.exponents[i * size + j] = (byte) (tile == 0 ? 0 : Integer.numberOfTrailingZeros(tile));
+			}
+		}
+		board.size = size;
+		board.score = model.getScore();
+		board.status = model.getStatus() ? PLAYING : model.isWinner() ? WON : LOST;
+		back = middle.getAndSet(back | FRESH) & INDEX;
+		if (!signalled.get() && !signalled.getAndSet(true))
+			selector.wakeup();
+	}
+
+    /**
+     * @brief gets the port spectators connect to
+     * @return the port
+     */
+	public int getPort() {
+		return server.socket().getLocalPort();
+	}
+
+    /**
+     * @brief gets the number of connected spectators
+     * @return the number of spectators
+     */
+	public int getSpectatorCount() {
+		return spectators;
+	}
+
+    /**
+     * @brief disconnects the spectators and stops the broadcaster thread
+     * @throws IOException - if the listening socket cannot be closed
+     */
+	@Override
+	public void close() throws IOException {
+		open = false;
+		selector.wakeup();
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		server.close();
+	}
+
+    /**
+     * @brief runs the broadcaster thread
+     */
+	private void run() {
+		try {
+			while (open) {
+				selector.select(this::handle);
+				if (signalled.getAndSet(false))
+					broadcast();
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		} finally {
+			for (SelectionKey key : selector.keys()) {
+				try {
+					key.channel().close();
+				} catch (IOException e) {
+					// closing anyway
+				}
+			}
+			try {
+				selector.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+    /**
+     * @brief accepts a spectator, drains one that sent something or finishes a frame to one
+     */
+	private void handle(SelectionKey key) {
+		try {
+			if (key.isAcceptable()) {
+				accept();
+				return;
+			}
+			SocketChannel channel = (SocketChannel) key.channel();
+			Spectator spectator = (Spectator) key.attachment();
+			if (key.isReadable()) {
+				discarded.clear();
+				if (channel.read(discarded) < 0) {
+					disconnect(key);
+					return;
+				}
+			}
+			if (key.isWritable()) {
+				channel.write(spectator.unsent);
+				if (spectator.unsent.hasRemaining())
+					return;
+				key.interestOps(SelectionKey.OP_READ);
+				if (spectator.behind) {
+					spectator.behind = false;
+					send(key, snapshot());
+				}
+			}
+		} catch (IOException e) {
+			disconnect(key);
+		}
+	}
+
+    /**
+     * @brief accepts a spectator and sends it the current board
+     */
+	private void accept() throws IOException {
+		SocketChannel channel = server.accept();
+		if (channel == null)
+			return;
+		channel.configureBlocking(false);
+		channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+		channel.setOption(StandardSocketOptions.SO_SNDBUF, SEND_BUFFER_BYTES);
+		SelectionKey key = channel.register(selector, SelectionKey.OP_READ, new Spectator());
+		spectators++;
+		if (sent.size > 0)
+			send(key, snapshot());
+	}
+
+    /**
+     * @brief sends the frame of the latest board to every spectator
+     */
+	private void broadcast() {
+		if ((middle.get() & FRESH) == 0)
+			return;
+		front = middle.getAndSet(front) & INDEX;
+		Board next = boards[front];
+		ByteBuffer out = frame;
+		if (next.size != sent.size) {
+			sent.copyFrom(next);
+			snapshotCurrent = false;
+			frames++;
+			out = snapshot();
+		} else {
+			int cells = next.size * next.size;
+			frame.clear();
+			frame.position(HEADER_BYTES);
+			for (int cell = 0; cell < cells; cell++) {
+				if (next.exponents[cell] != sent.exponents[cell]) {
+					frame.put((byte) cell);
+					frame.put(next.exponents[cell]);
+				}
+			}
+			int changed = (frame.position() - HEADER_BYTES) / 2;
+			if (changed == 0 && next.score == sent.score && next.status == sent.status)
+				return;
+			frames++;
+			frame.put(0, DELTA);
+			frame.put(1, (byte) changed);
+			frame.put(2, next.status);
+			frame.putInt(3, frames);
+			frame.putInt(7, next.score - sent.score);
+			frame.flip();
+			sent.copyFrom(next);
+			snapshotCurrent = false;
+		}
+		for (SelectionKey key : selector.keys()) {
+			if (key.attachment() == null || !key.isValid())
+				continue;
+			Spectator spectator = (Spectator) key.attachment();
+			if (spectator.unsent.hasRemaining())
+				spectator.behind = true;
+			else
+				send(key, out);
+		}
+	}
+
+    /**
+     * @brief encodes the last board sent as a snapshot, once per board
+     * @return the shared snapshot frame
+     */
+	private ByteBuffer snapshot() {
+		if (!snapshotCurrent) {
+			int cells = sent.size * sent.size;
+			snapshot.clear();
+			snapshot.put(SNAPSHOT).put((byte) sent.size).put(sent.status).putInt(frames).putInt(sent.score);
+			for (int cell = 0; cell < cells; cell++) {
+				snapshot.put(sent.exponents[cell]);
+			}
+			snapshot.flip();
+			snapshotCurrent = true;
+		}
+		return snapshot;
+	}
+
+    /**
+     * @brief writes a shared frame to a spectator, keeping aside what its socket cannot take yet
+     * @param key - the key of the spectator, with nothing unsent
+     * @param shared - the frame, rewound after the write for the next spectator
+     */
+	private void send(SelectionKey key, ByteBuffer shared) {
+		Spectator spectator = (Spectator) key.attachment();
+		try {
+			((SocketChannel) key.channel()).write(shared);
+			if (shared.hasRemaining()) {
+				spectator.unsent.clear();
+				spectator.unsent.put(shared);
+				spectator.unsent.flip();
+				key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+			}
+		} catch (IOException e) {
+			disconnect(key);
+		} finally {
+			shared.rewind();
+		}
+	}
+
+    /**
+     * @brief closes the connection of a spectator
+     */
+	private void disconnect(SelectionKey key) {
+		if (!key.isValid())
+			return;
+		key.cancel();
+		try {
+			key.channel().close();
+		} catch (IOException e) {
+			// gone anyway
+		}
+		spectators--;
+	}
+}
@@ -0,0 +1,172 @@
+/**
+ * @File: SpectatorClient.java
+ * @Description: follows a game streamed by a SpectatorBroadcaster
+ */
+
+package src;
+
+// Import java libraries
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.Socket;
+
+/**
+ * @brief Rebuilds the board of a streamed game from the frames of a SpectatorBroadcaster
+ * @details Reads frames with blocking reads on the calling thread. A delta must follow the frame
+ * before it; anything else means the stream is corrupt.
+ */
+public class SpectatorClient implements Closeable {
+
+	// State Variables
+	private final Socket socket;
+	private final DataInputStream in;
+	private final byte[] exponents = new byte[BoardT.MAX_SIZE * BoardT.MAX_SIZE];
+	private int size;
+	private int score;
+	private byte status;
+	private int frame;
+	private byte type;
+
+    /**
+     * @brief constructor, connecting to a broadcaster
+     * @param host - the host of the broadcaster
+     * @param port - the port of the broadcaster
+     * @throws IOException - if the connection fails
+     */
+	public SpectatorClient(String host, int port) throws IOException {
+		socket = new Socket(host, port);
+		socket.setTcpNoDelay(true);
+		in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+	}
+
+    /**
+     * @brief reads the next frame and applies it to the board
+     * @return false if the broadcaster closed the connection; true otherwise
+     * @throws IOException - if the connection fails
+     * @throws IllegalStateException - if the frame is corrupt or a delta does not follow the previous frame
+     */
+	public boolean readFrame() throws IOException {
+		try {
+			type = in.readByte();
+		} catch (EOFException e) {
+			return false;
+		}
+		int count = in.readUnsignedByte();
+		status = in.readByte();
+		int number = in.readInt();
+		int value = in.readInt();
+		if (type == SpectatorBroadcaster.SNAPSHOT) {
+			if (count < BoardT.MIN_SIZE || count > BoardT.MAX_SIZE)
+				throw new IllegalStateException("Corrupt spectator stream: snapshot of a board of size " + count + ".");
+			size = count;
+			score = value;
+			in.readFully(exponents, 0, size * size);
+		} else if (type == SpectatorBroadcaster.DELTA) {
+			if (size == 0 || number != frame + 1)
+				throw new IllegalStateException("Corrupt spectator stream: delta " + number + " after frame " + frame + ".");
+			score += value;
+			for (int i = 0; i < count; i++) {
+				int cell = in.readUnsignedByte();
+				if (cell >= size * size)
+					throw new IllegalStateException("Corrupt spectator stream: cell " + cell + " on a board of size " + size + ".");
+				exponents[cell] = in.readByte();
+			}
+		} else {
+			throw new IllegalStateException("Corrupt spectator stream: unknown frame type " + type + ".");
+		}
+		frame = number;
+		return true;
+	}
+
+    /**
+     * @brief determines whether the last frame read was a snapshot
+     * @return true for a snapshot; false for a delta
+     */
+	public boolean isSnapshot() {
+		return type == SpectatorBroadcaster.SNAPSHOT;
+	}
+
+    /**
+     * @brief gets the number of the last frame read
+     * @return the frame number
+     */
+	public int getFrame() {
+		return frame;
+	}
+
+    /**
+     * @brief gets the size of the board
+     * @return the number of rows and columns, or 0 before the first snapshot
+     */
+	public int getSize() {
+		return size;
+	}
+
+    /**
+     * @brief gets the score
+     * @return the score
+     */
+	public int getScore() {
+		return score;
+	}
+
+    /**
+     * @brief gets the status of the game
+     * @return SpectatorBroadcaster.PLAYING, WON or LOST
+     */
+	public byte getStatus() {
+		return status;
+	}
+
+    /**
+     * @brief gets the tile of a cell
+     * @param x - the row of the cell
+     * @param y - the column of the cell
+     * @return the value of the tile, or 0 for an empty cell
+     * @throws IndexOutOfBoundsException - if the cell is not on the board
+     */
+	public int getTile(int x, int y) {
+		if (x < 0 || y < 0 || x >= size || y >= size)
+			throw new IndexOutOfBoundsException("Cell (" + x + ", " + y + ") is not on the board.");
+		int exponent = exponents[x * size + y];
+		return exponent == 0 ? 0 : 1 << exponent;
+	}
+
+    /**
+     * @brief closes the connection
+     * @throws IOException - if the socket cannot be closed
+     */
+	@Override
+	public void close() throws IOException {
+		socket.close();
+	}
+
+    /**
+     * @brief prints the board of a streamed game after every frame
+     * @param args - the port of the broadcaster (default 2049) and its host (default localhost)
+     * @throws IOException - if the connection fails
+     */
+	public static void main(String[] args) throws IOException {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : 2049;
+		String host = args.length > 1 ? args[1] : "localhost";
+		try (SpectatorClient client = new SpectatorClient(host, port)) {
+			while (client.readFrame()) {
+				StringBuilder text = new StringBuilder();
+				text.append(String.format("frame %d (%s)  score %d  %s%n", client.getFrame(),
+						client.isSnapshot() ? "snapshot" : "delta", client.getScore(),
+						client.getStatus() == SpectatorBroadcaster.PLAYING ? "playing"
+								: client.getStatus() == SpectatorBroadcaster.WON ? "won" : "lost"));
+				for (int x = 0; x < client.getSize(); x++) {
+					for (int y = 0; y < client.getSize(); y++) {
+						text.append(String.format("%6d", client.getTile(x, y)));
+					}
+					text.append(System.lineSeparator());
+				}
+				System.out.println(text);
+			}
+		}
+	}
+}
@@ -0,0 +1,203 @@
+/**
+ * @File: TileSpawner.java
+ * @Description: a seedable source of the random tiles and cells used when a tile is spawned
+ */
+
+package src;
+
+// Import java libraries
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * @brief An ADT choosing the value and the cell of every spawned tile
+ * @details Tile values are drawn with configurable integer weights and cells uniformly among the
+ * empty ones. A spawner is not thread safe; each board owns one. Every game reseeds it, so a game is
+ * reproduced bit for bit from its seed, and seedFor derives independent per-game seeds from a root
+ * seed without depending on which thread plays which game.
+ */
+public class TileSpawner {
+
+	// Increment of the SplittableRandom seed sequence
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	// State Variables
+	private final int[] tiles;
+	private final int[] cumulativeWeights;
+	private SplittableRandom rand;
+	private long seed;
+
+    /**
+     * @brief constructor
+     * @param tiles - the tile values that can be spawned
+     * @param weights - the relative weight of each tile value
+     * @param seed - the seed of the first game
+     * @throws IllegalArgumentException - if the arrays differ in length, a tile is not a power of two
+     * above 1 or the weights are negative or all zero
+     */
+	public TileSpawner(int[] tiles, int[] weights, long seed) {
+		if (tiles.length == 0 || tiles.length != weights.length)
+			throw new IllegalArgumentException("Every tile value needs exactly one weight.");
+		this.tiles = tiles.clone();
+		cumulativeWeights = new int[weights.length];
+		int total = 0;
+		for (int i = 0; i < tiles.length; i++) {
+			if (tiles[i] < 2 || (tiles[i] & (tiles[i] - 1)) != 0)
+				throw new IllegalArgumentException("Spawned tiles must be powers of two.");
+			if (weights[i] < 0)
+				throw new IllegalArgumentException("Tile weights cannot be negative.");
+			total += weights[i];
+			cumulativeWeights[i] = total;
+		}
+		if (total == 0)
+			throw new IllegalArgumentException("At least one tile weight must be positive.");
+		reseed(seed);
+	}
+
+    /**
+     * @brief creates a spawner following the classic rule: 2 with 90% and 4 with 10% probability
+     * @param seed - the seed of the first game
+     * @return a new spawner
+     */
+	public static TileSpawner classic(long seed) {
+		return new TileSpawner(new int[] { 2, 4 }, new int[] { 9, 1 }, seed);
+	}
+
+    /**
+     * @brief creates a spawner following the original BoardT rule
+     * @details BoardT drew nextInt(3) and mapped 0 and 1 to 2, 2 to 4 and an unreachable 3 to 8,
+     * so 2 is spawned with 2/3 and 4 with 1/3 probability
+     * @param seed - the seed of the first game
+     * @return a new spawner
+     */
+	public static TileSpawner legacy(long seed) {
+		return new TileSpawner(new int[] { 2, 4, 8 }, new int[] { 2, 1, 0 }, seed);
+	}
+
+    /**
+     * @brief derives the seed of a game from a root seed
+     * @details returns the value the index-th nextLong of a SplittableRandom seeded with root would return
+     * @param root - the root seed of a batch of games
+     * @param index - the index of the game in the batch
+     * @return the seed of the game
+     */
+	public static long seedFor(long root, long index) {
+		long z = root + (index + 1) * GOLDEN_GAMMA;
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+    /**
+     * @brief restarts the random sequence for a new game
+     * @param seed - the seed of the game
+     */
+	public void reseed(long seed) {
+		this.seed = seed;
+		rand = new SplittableRandom(seed);
+	}
+
+    /**
+     * @brief gets the seed of the current game
+     * @return the seed last passed to reseed
+     */
+	public long getSeed() {
+		return seed;
+	}
+
+    /**
+     * @brief gets the tile values the spawner can spawn
+     * @return a new array of the tiles of positive weight
+     */
+	public int[] getTiles() {
+		int count = 0;
+		int[] spawned = new int[tiles.length];
+		for (int i = 0; i < tiles.length; i++) {
+			if (cumulativeWeights[i] > (i == 0 ? 0 : cumulativeWeights[i - 1]))
+				spawned[count++] = tiles[i];
+		}
+		return Arrays.copyOf(spawned, count);
+	}
+
+    /**
+     * @brief creates a spawner with the same weights and an independent random sequence
+     * @return a new spawner
+     */
+	public TileSpawner split() {
+		int[] weights = new int[tiles.length];
+		for (int i = 0; i < tiles.length; i++) {
+			weights[i] = cumulativeWeights[i] - (i == 0 ? 0 : cumulativeWeights[i - 1]);
+		}
+		return new TileSpawner(tiles, weights, rand.split().nextLong());
+	}
+
+    /**
+     * @brief draws the value of the next spawned tile
+     * @return a tile value
+     */
+	public int nextTile() {
+		int r = rand.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+		int i = 0;
+		while (r >= cumulativeWeights[i]) {
+			i++;
+		}
+		return tiles[i];
+	}
+
+    /**
+     * @brief draws the cell of the next spawned tile uniformly among the empty cells
+     * @param emptyMask - a mask with one bit set per empty cell; must not be 0
+     * @return the index of the bit of the chosen cell
+     */
+	public int nextCell(long emptyMask) {
+		return selectBit(emptyMask, rand.nextInt(Long.bitCount(emptyMask)));
+	}
+
+    /**
+     * @brief finds the n-th lowest set bit of a mask
+     * @details halves the window six times, keeping the half the bit is in by the bit count of the low
+     * half, so it takes the same six steps wherever the bit is
+     * @param mask - a mask with more than n bits set
+     * @param n - the number of lower set bits to skip
+     * @return the index of the bit
+     */
+	static int selectBit(long mask, int n) {
+		int index = 0;
+		for (int width = 32; width > 0; width >>>= 1) {
+			int low = Long.bitCount(mask & ((1L << width) - 1));
+			int high = (low - n - 1) >>> 31; // 1 if the bit is in the high half
+			int shift = width & -high;
+			n -= low & -high;
+			mask >>>= shift;
+			index += shift;
+		}
+		return index;
+	}
+
+    /**
+     * @brief gets the number of tile values the spawner can draw
+     * @return the number of tile values, including those with a zero weight
+     */
+	public int getTileCount() {
+		return tiles.length;
+	}
+
+    /**
+     * @brief gets one of the tile values the spawner can draw
+     * @param i - the index of the tile value
+     * @return the tile value
+     */
+	public int getTile(int i) {
+		return tiles[i];
+	}
+
+    /**
+     * @brief gets the probability of drawing one of the tile values
+     * @param i - the index of the tile value
+     * @return the probability of the tile value
+     */
+	public double getProbability(int i) {
+		int weight = cumulativeWeights[i] - (i == 0 ? 0 : cumulativeWeights[i - 1]);
+		return (double) weight / cumulativeWeights[cumulativeWeights.length - 1];
+	}
+}
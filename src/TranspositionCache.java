@@ -0,0 +1,256 @@
+/**
+ * @File: TranspositionCache.java
+ * @Description: a bounded, off-heap cache of search results keyed by packed boards
+ */
+
+package src;
+
+// Import java libraries
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @brief A fixed-capacity table mapping packed boards to (depth, value, best move)
+ * @details Entries live in direct buffers outside of the heap, grouped into buckets of four
+ * 16-byte entries (one cache line). An entry holds its data word and the key xor-ed with the data,
+ * so a torn read by a concurrent thread fails the key check and counts as a miss; threads never
+ * lock. When a bucket is full, the entry with the lowest replacement priority (its depth minus
+ * twice the number of rounds since it was written) is evicted. The table never grows.
+ *
+ * Entries are aged in rounds, not in searches. A round is one search per searcher sharing the
+ * cache, the number given to the constructor, so concurrent searchers playing one move each
+ * advance the age by one, and entries they write in the same round count as equally fresh. The
+ * age kept in an entry is the round modulo 256, and distances are taken modulo 256 too, so they
+ * stay right across the wraparound for entries less than 256 rounds old.
+ */
+public class TranspositionCache {
+
+	// Layout of the table
+	private static final int ENTRY_BYTES = 16;
+	private static final int BUCKET_ENTRIES = 4;
+	private static final int BUCKET_BYTES = ENTRY_BYTES * BUCKET_ENTRIES;
+	private static final int SEGMENT_BYTES = 1 << 30;
+	private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+	// Layout of a data word: value (bits 0-31), depth (32-39), move (40-42), age (48-55), valid (63)
+	private static final long VALID = 1L << 63;
+	private static final MoveT[] MOVES = MoveT.values();
+
+	// State Variables
+	private final ByteBuffer[] segments;
+	private final int segmentShift;
+	private final long bucketMask;
+	private final int searchers;
+	private final AtomicLong searches = new AtomicLong();
+	private final AtomicLong round = new AtomicLong();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @brief constructor, for a cache used by a single searcher
+     * @details allocates the whole table up front, rounded down to a power of two
+     * @param capacityBytes - the memory the table may use, at least 64 bytes
+     * @throws IllegalArgumentException - if the capacity is below one bucket
+     */
+	public TranspositionCache(long capacityBytes) {
+		this(capacityBytes, 1);
+	}
+
+    /**
+     * @brief constructor
+     * @details allocates the whole table up front, rounded down to a power of two
+     * @param capacityBytes - the memory the table may use, at least 64 bytes
+     * @param searchers - the number of searchers sharing the cache, searching concurrently
+     * @throws IllegalArgumentException - if the capacity is below one bucket or there is no searcher
+     */
+	public TranspositionCache(long capacityBytes, int searchers) {
+		if (capacityBytes < BUCKET_BYTES)
+			throw new IllegalArgumentException("The cache must hold at least one bucket.");
+		if (searchers < 1)
+			throw new IllegalArgumentException("The cache must have at least one searcher.");
+		this.searchers = searchers;
+		long bytes = Long.highestOneBit(capacityBytes);
+		int segmentBytes = (int) Math.min(bytes, SEGMENT_BYTES);
+		segments = new ByteBuffer[(int) (bytes / segmentBytes)];
+		for (int i = 0; i < segments.length; i++) {
+			segments[i] = ByteBuffer.allocateDirect(segmentBytes).order(ByteOrder.nativeOrder());
+		}
+		segmentShift = Integer.numberOfTrailingZeros(segmentBytes / BUCKET_BYTES);
+		bucketMask = bytes / BUCKET_BYTES - 1;
+	}
+
+    /**
+     * @brief marks the start of a new search, ageing the entries written by earlier rounds once
+     * every searcher has started one in the current round
+     */
+	public void newSearch() {
+		long search = searches.getAndIncrement();
+		if (search % searchers == 0) {
+			long next = search / searchers;
+			round.accumulateAndGet(next, Math::max);
+		}
+	}
+
+    /**
+     * @brief looks up a board
+     * @param key - a packed board
+     * @return the data word of the entry (see depthOf, valueOf, moveOf), or 0 if the board is not cached
+     */
+	public long probe(long key) {
+		long bucket = hash(key) & bucketMask;
+		ByteBuffer segment = segments[(int) (bucket >>> segmentShift)];
+		int offset = (int) ((bucket & ((1L << segmentShift) - 1)) * BUCKET_BYTES);
+		for (int i = 0; i < BUCKET_ENTRIES; i++, offset += ENTRY_BYTES) {
+			long data = (long) LONGS.getOpaque(segment, offset + 8);
+			if (data != 0 && ((long) LONGS.getOpaque(segment, offset) ^ data) == key) {
+				hits.increment();
+				return data;
+			}
+		}
+		misses.increment();
+		return 0L;
+	}
+
+    /**
+     * @brief stores the result of a search
+     * @details replaces the entry of the same board if the new depth is not lower, otherwise the
+     * entry with the lowest replacement priority of the bucket
+     * @param key - a packed board
+     * @param depth - the depth the board was searched to (0-255)
+     * @param value - the value of the board
+     * @param move - the best move, or null
+     */
+	public void store(long key, int depth, double value, MoveT move) {
+		int currentAge = (int) round.get() & 0xFF;
+		long data = VALID | ((long) currentAge << 48) | ((long) (move == null ? 0 : move.ordinal() + 1) << 40)
+				| ((long) (depth & 0xFF) << 32) | (Float.floatToRawIntBits((float) value) & 0xFFFFFFFFL);
+		long bucket = hash(key) & bucketMask;
+		ByteBuffer segment = segments[(int) (bucket >>> segmentShift)];
+		int base = (int) ((bucket & ((1L << segmentShift) - 1)) * BUCKET_BYTES);
+		int victim = base;
+		int victimPriority = Integer.MAX_VALUE;
+		for (int i = 0, offset = base; i < BUCKET_ENTRIES; i++, offset += ENTRY_BYTES) {
+			long old = (long) LONGS.getOpaque(segment, offset + 8);
+			if (old == 0) {
+				victim = offset;
+				victimPriority = Integer.MIN_VALUE;
+				break;
+			}
+			if (((long) LONGS.getOpaque(segment, offset) ^ old) == key) {
+				if (depthOf(old) > depth && ageOf(old) == currentAge)
+					return;
+				victim = offset;
+				victimPriority = Integer.MIN_VALUE;
+				break;
+			}
+			int priority = depthOf(old) - 2 * ((currentAge - ageOf(old)) & 0xFF);
+			if (priority < victimPriority) {
+				victim = offset;
+				victimPriority = priority;
+			}
+		}
+		if (victimPriority != Integer.MIN_VALUE)
+			evictions.increment();
+		LONGS.setOpaque(segment, victim, key ^ data);
+		LONGS.setOpaque(segment, victim + 8, data);
+	}
+
+    /**
+     * @brief removes every entry and resets the counters
+     * @details must not run concurrently with probe or store
+     */
+	public void clear() {
+		for (ByteBuffer segment : segments) {
+			for (int offset = 0; offset < segment.capacity(); offset += 8) {
+				segment.putLong(offset, 0L);
+			}
+		}
+		hits.reset();
+		misses.reset();
+		evictions.reset();
+	}
+
+    /**
+     * @brief gets the depth of a cached entry
+     * @param data - a data word returned by probe
+     * @return the depth the board was searched to
+     */
+	public static int depthOf(long data) {
+		return (int) (data >>> 32) & 0xFF;
+	}
+
+    /**
+     * @brief gets the value of a cached entry
+     * @param data - a data word returned by probe
+     * @return the value of the board
+     */
+	public static double valueOf(long data) {
+		return Float.intBitsToFloat((int) data);
+	}
+
+    /**
+     * @brief gets the best move of a cached entry
+     * @param data - a data word returned by probe
+     * @return the best move, or null if none was stored
+     */
+	public static MoveT moveOf(long data) {
+		int move = (int) (data >>> 40) & 0x7;
+		return move == 0 ? null : MOVES[move - 1];
+	}
+
+    /**
+     * @brief gets the number of successful lookups
+     * @return the number of hits
+     */
+	public long getHits() {
+		return hits.sum();
+	}
+
+    /**
+     * @brief gets the number of failed lookups
+     * @return the number of misses
+     */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+    /**
+     * @brief gets the number of entries replaced by an entry of another board
+     * @return the number of evictions
+     */
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+    /**
+     * @brief gets the number of entries the table can hold
+     * @return the capacity in entries
+     */
+	public long getCapacity() {
+		return (bucketMask + 1) * BUCKET_ENTRIES;
+	}
+
+    /**
+     * @brief gets the round an entry was written in, modulo 256
+     */
+	private static int ageOf(long data) {
+		return (int) (data >>> 48) & 0xFF;
+	}
+
+    /**
+     * @brief spreads the bits of a packed board over the whole word (murmur3 finalizer)
+     */
+	private static long hash(long key) {
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		key *= 0xc4ceb9fe1a85ec53L;
+		key ^= key >>> 33;
+		return key;
+	}
+}
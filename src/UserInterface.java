@@ -12,17 +12,27 @@
  import java.awt.event.ActionListener;
  import java.awt.event.KeyEvent;
  import java.awt.event.KeyListener;
+ import javax.swing.SwingUtilities;
  
  /**
   * A class that handles the user interface for the application.
   * Manages both the game view and the menu, responding to user interactions.
+  * User input is handed to a GameLoop, so the listener runs on the game logic thread;
+  * calls from that thread are forwarded to the Swing event thread, and board updates
+  * reach the game view through a FramePublisher at most once per frame.
   */
- public class UserInterface implements KeyListener, ActionListener {
+ public class UserInterface implements GameView, KeyListener, ActionListener {
+ 
+     // Number of moves that can wait for the game logic thread
+     private static final int INPUT_CAPACITY = 16;
  
      // Instance variables
-     private ViewListener listener;
+     private GameLoop loop;
      private GameUI game;
      private MenuUI menu;
+     private FramePublisher frames;
+     private volatile int selectedBoardSize = 4;
+     private volatile boolean showing; // set on the event thread once the menu or the game view is shown
      private static UserInterface instance = null;
  
      /**
@@ -32,45 +42,70 @@
      private UserInterface() {
          game = new GameUI();
          menu = MenuUI.getInstance();
+         frames = new FramePublisher(game);
  
          game.addKeyListener(this);
          game.getBackToMenuButton().addActionListener(this);
- 
          menu.getPlayButton().addActionListener(this);
      }
  
      /**
       * Switches the display to the menu view.
       */
+     @Override
      public void switchToMenu() {
-         game.setVisible(false);
-         menu.setVisible(true);
+         SwingUtilities.invokeLater(() -> {
+             game.setVisible(false);
+             menu.setVisible(true);
+             showing = true;
+         });
      }
  
      /**
       * Switches the display to the game view.
       */
+     @Override
      public void switchToGame() {
-         game.setVisible(true);
-         menu.setVisible(false);
+         SwingUtilities.invokeLater(() -> {
+             game.setVisible(true);
+             menu.setVisible(false);
+             showing = true;
+         });
      }
  
      /**
       * Checks if either the game view or menu is currently visible.
+      * Called from the game logic thread, so it reads a flag the view switches set on the
+      * Swing event thread rather than the frames themselves.
       * 
       * @return true if either view is visible, false otherwise.
       */
+     @Override
      public boolean isDisplaying() {
-         return game.isVisible() || menu.isVisible();
+         return showing;
+     }
+
+     /**
+      * Moves are animated from the travel of their tiles.
+      * 
+      * @return true
+      */
+     @Override
+     public boolean animatesMoves() {
+         return true;
      }
  
      /**
-      * Assigns a listener to handle user interactions.
+      * Assigns a listener to handle user interactions, on a new game logic thread.
       * 
       * @param listener The listener to be notified of UI events.
       */
      public void setViewListener(ViewListener listener) {
-         this.listener = listener;
+         if (loop != null) {
+             loop.stop();
+         }
+         loop = new GameLoop(listener, INPUT_CAPACITY);
+         loop.start();
      }
  
      /**
@@ -86,15 +121,33 @@
      }
  
      /**
-      * Updates the game UI components and reassigns event listeners.
+      * Gets the board size the player selected in the menu when pressing Play.
+      * 
+      * @return The number of rows and columns of the board.
       */
-     public void updateGameUI() {
-         game.removeKeyListener(this);
-         game.getBackToMenuButton().removeActionListener(this);
+     @Override
+     public int getSelectedBoardSize() {
+         return selectedBoardSize;
+     }
  
-         game = new GameUI();
-         game.addKeyListener(this);
-         game.getBackToMenuButton().addActionListener(this);
+     /**
+      * Restricts the board sizes the player can select in the menu.
+      * 
+      * @param min The smallest selectable size.
+      * @param max The largest selectable size.
+      */
+     public void setBoardSizeRange(int min, int max) {
+         menu.setBoardSizeRange(min, max);
+     }
+ 
+     /**
+      * Clears the game view for a new game, reusing its frame and listeners.
+      * 
+      * @param size The number of rows and columns of the board.
+      */
+     @Override
+     public void updateGameUI(int size) {
+         SwingUtilities.invokeLater(() -> game.reset(size));
      }
  
      /**
@@ -103,45 +156,73 @@
       * @param board The current state of the board.
       * @param score The current game score.
       */
+     @Override
      public void updateGrid(int[][] board, int score) {
-         game.updateGrid(board, score);
+         frames.publish(board, score, null);
+     }
+
+     /**
+      * Updates the game grid display after a move, animating the travel of the tiles.
+      * 
+      * @param board The current state of the board.
+      * @param score The current game score.
+      * @param move The travel of the tiles during the move.
+      */
+     @Override
+     public void updateGrid(int[][] board, int score, MoveDescription move) {
+         frames.publish(board, score, move);
      }
  
      /**
       * Displays a message indicating the player has won.
       */
+     @Override
      public void displayYouWonMessage() {
-         showMessageDialog(null, "Congratulations, you win!");
+         SwingUtilities.invokeLater(() -> showMessageDialog(null, "Congratulations, you win!"));
      }
  
      /**
       * Displays a message indicating the player has lost.
       */
+     @Override
      public void displayYouLostMessage() {
-         showMessageDialog(null, "Game Over! Try again.");
+         SwingUtilities.invokeLater(() -> showMessageDialog(null, "Game Over! Try again."));
      }
  
      /**
       * Handles key press events to capture user moves.
+      * Moves are queued for the game logic thread and dropped while the queue is full.
+      * Ctrl+Z undoes the last move, Ctrl+Y or Ctrl+Shift+Z redoes it, and
+      * F12 prints the latency percentiles and counters of Metrics.
       * 
       * @param e The key event.
       */
      @Override
      public void keyPressed(KeyEvent e) {
-         if (listener == null) {
+         if (loop == null) {
              return;
          }
-         if (e.getKeyCode() == KeyEvent.VK_UP) {
-            listener.onMoveOccured(MoveT.up);
+         if (e.isControlDown() && (e.getKeyCode() == KeyEvent.VK_Y
+                 || e.getKeyCode() == KeyEvent.VK_Z && e.isShiftDown())) {
+            loop.submitRedo();
+         }
+         else if (e.isControlDown() && e.getKeyCode() == KeyEvent.VK_Z) {
+            loop.submitUndo();
+         }
+         else if (e.getKeyCode() == KeyEvent.VK_UP) {
+            loop.submitMove(MoveT.up);
          }
          else if (e.getKeyCode() == KeyEvent.VK_DOWN) {
-            listener.onMoveOccured(MoveT.down);
+            loop.submitMove(MoveT.down);
          }
          else if (e.getKeyCode() == KeyEvent.VK_LEFT) {
-            listener.onMoveOccured(MoveT.left);
+            loop.submitMove(MoveT.left);
          }
          else if (e.getKeyCode() == KeyEvent.VK_RIGHT) {
-            listener.onMoveOccured(MoveT.right);
+            loop.submitMove(MoveT.right);
+         }
+         else if (e.getKeyCode() == KeyEvent.VK_F12) {
+            Metrics.dump();
          }
      }
  
@@ -152,13 +233,14 @@
       */
      @Override
      public void actionPerformed(ActionEvent e) {
-         if (listener == null) {
+         if (loop == null) {
              return;
          }
          if (e.getSource() == game.getBackToMenuButton()) {
-             listener.onBackToMenuPressed();
+             loop.submitBackToMenu();
          } else if (e.getSource() == menu.getPlayButton()) {
-             listener.onPlayPressed();
+             selectedBoardSize = menu.getSelectedBoardSize();
+             loop.submitPlay();
          }
      }
  
@@ -28,4 +28,14 @@ public interface ViewListener {
      */
 	public void onPlayPressed();
 
+    /**
+     * @brief triggered every time the user asks to take back the last move in the game view
+     */
+	public void onUndoPressed();
+
+    /**
+     * @brief triggered every time the user asks to make the last undone move again in the game view
+     */
+	public void onRedoPressed();
+
 }